@@ -0,0 +1,45 @@
+package net.vinlabs.springboot.benchmark;
+
+import net.vinlabs.springboot.SpringBootTestingApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+// Boots the application against a private in-memory H2 database running in MySQL mode, reached over JDBC and, with
+// the reactive profile, over R2DBC as well.
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    // properties are passed as command line arguments so they win over application.properties
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        String database = "benchmark-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        List<String> args = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:" + database,
+                "spring.r2dbc.url=r2dbc:h2:mem:///" + database,
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.show-sql=false",
+                "server.port=0",
+                "logging.level.root=WARN",
+                // the SQL log stays in the path, sampled statements are just not printed between JMH results
+                "logging.level.employees.sql=WARN"));
+        args.addAll(Arrays.asList(properties));
+        return new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(webApplicationType)
+                .logStartupInfo(false)
+                .run(args.stream().map(arg -> "--" + arg).toArray(String[]::new));
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+}
@@ -0,0 +1,138 @@
+package net.vinlabs.springboot.benchmark;
+
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// The servlet API (Tomcat, JPA over a 10 connection Hikari pool) against the reactive profile (Netty, R2DBC over a
+// 10 connection pool) on the same embedded database: bursts of concurrent lookups and page reads, as sent by a
+// fan-out client, and a full NDJSON export. Caches, bulkheads and the concurrency limit are off so that every
+// request reaches the database on both stacks.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EmployeeApiStackBenchmark {
+
+    private static final int EMPLOYEES = 10_000;
+    private static final int BURST = 500;
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"servlet", "reactive"})
+    private String stack;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private List<URI> lookupUris;
+    private List<URI> pageUris;
+    private URI exportUri;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        boolean reactive = "reactive".equals(stack);
+        context = BenchmarkApplication.start(reactive ? WebApplicationType.REACTIVE : WebApplicationType.SERVLET,
+                "spring.profiles.active=" + (reactive ? "reactive" : "default"),
+                "spring.datasource.hikari.maximum-pool-size=10",
+                "spring.r2dbc.pool.max-size=10",
+                "spring.cache.type=none",
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                "employees.bulkhead.enabled=false",
+                "employees.concurrency-limit.enabled=false");
+
+        List<Employee> employees = new ArrayList<>(EMPLOYEES);
+        for (int n = 0; n < EMPLOYEES; n++) {
+            employees.add(Employee.builder()
+                    .firstName("First" + n).lastName("Last" + n).email("employee" + n + "@example.com").build());
+        }
+        EmployeeService employeeService = context.getBean(EmployeeService.class);
+        for (int from = 0; from < EMPLOYEES; from += 1000) {
+            employeeService.saveEmployees(employees.subList(from, from + 1000));
+        }
+
+        String baseUri = "http://localhost:" + BenchmarkApplication.port(context) + "/api/employees";
+        lookupUris = new ArrayList<>(BURST);
+        pageUris = new ArrayList<>(BURST);
+        for (int i = 0; i < BURST; i++) {
+            Employee employee = employees.get(i * (EMPLOYEES / BURST));
+            lookupUris.add(URI.create(baseUri + "/" + employee.getId()));
+            pageUris.add(URI.create(baseUri + "?after=" + employee.getId() + "&limit=" + PAGE_SIZE));
+        }
+        exportUri = URI.create(baseUri + "/export");
+        client = HttpClient.newHttpClient();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void lookupBurst() throws Exception {
+        sendBurst(lookupUris).get(1, TimeUnit.MINUTES);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void pageBurst() throws Exception {
+        sendBurst(pageUris).get(1, TimeUnit.MINUTES);
+    }
+
+    // rows per second through the streaming endpoint
+    @Benchmark
+    @OperationsPerInvocation(EMPLOYEES)
+    public long export() throws Exception {
+        HttpResponse<Stream<String>> response = client.send(
+                HttpRequest.newBuilder(exportUri).header("Accept", "application/x-ndjson").GET().build(),
+                HttpResponse.BodyHandlers.ofLines());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        long lines = response.body().count();
+        if (lines != EMPLOYEES) {
+            throw new IllegalStateException("Exported " + lines + " of " + EMPLOYEES + " employees");
+        }
+        return lines;
+    }
+
+    private CompletableFuture<?> sendBurst(List<URI> uris) {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[uris.size()];
+        for (int i = 0; i < uris.size(); i++) {
+            HttpRequest request = HttpRequest.newBuilder(uris.get(i)).GET().build();
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenAccept(response -> {
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Unexpected status " + response.statusCode());
+                }
+            });
+        }
+        return CompletableFuture.allOf(responses);
+    }
+}
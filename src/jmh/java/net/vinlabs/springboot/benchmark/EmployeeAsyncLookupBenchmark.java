@@ -0,0 +1,101 @@
+package net.vinlabs.springboot.benchmark;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.service.AsyncEmployeeService;
+import net.vinlabs.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// An aggregation that needs 20 employees, by id, from a database taking 5ms per statement: one EmployeeService call
+// after another versus AsyncEmployeeService.getEmployeesByIds fanning them out over the connection pool.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EmployeeAsyncLookupBenchmark {
+
+    private static final int IDS = 20;
+    private static final long STATEMENT_DELAY_MILLIS = 5;
+
+    @Param({"sequential", "async"})
+    private String calls;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private AsyncEmployeeService asyncEmployeeService;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE,
+                "spring.datasource.hikari.maximum-pool-size=10",
+                // every lookup goes to the database
+                "spring.cache.type=none",
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                // the fan-out is bounded by the async pool and the connections only
+                "employees.bulkhead.enabled=false");
+        employeeService = context.getBean(EmployeeService.class);
+        asyncEmployeeService = context.getBean(AsyncEmployeeService.class);
+        ids = new ArrayList<>(IDS);
+        for (int n = 0; n < IDS; n++) {
+            ids.add(employeeService.saveEmployee(Employee.builder()
+                    .firstName("First" + n).lastName("Last" + n).email("employee" + n + "@example.com").build()).getId());
+        }
+        ((ProxyDataSource) context.getBean(DataSource.class)).addListener(new QueryExecutionListener() {
+            @Override
+            public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                try {
+                    Thread.sleep(STATEMENT_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Employee> aggregate() throws Exception {
+        if ("async".equals(calls)) {
+            return asyncEmployeeService.getEmployeesByIds(ids).get(1, TimeUnit.MINUTES);
+        }
+        List<Employee> employees = new ArrayList<>(IDS);
+        for (Long id : ids) {
+            employeeService.getEmployeeById(id).ifPresent(employees::add);
+        }
+        return employees;
+    }
+}
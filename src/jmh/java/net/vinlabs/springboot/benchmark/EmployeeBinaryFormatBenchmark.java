@@ -0,0 +1,104 @@
+package net.vinlabs.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import net.vinlabs.springboot.model.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Encode and decode cost of employee lists as JSON, Smile and CBOR with the ObjectMappers of the application's message
+// converters; the payload size is reported next to the timings with
+// -Djmh.args="-prof net.vinlabs.springboot.benchmark.PayloadSizeProfiler"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeBinaryFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader reader;
+    private List<Employee> employees;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        ConfigurableApplicationContext context = BenchmarkApplication.start(WebApplicationType.SERVLET);
+        try {
+            objectMapper = objectMapper(context, mediaType(format));
+        } finally {
+            context.close();
+        }
+        reader = objectMapper.readerFor(Employee[].class);
+        employees = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            employees.add(Employee.builder()
+                    .id(id)
+                    .firstName("First" + id)
+                    .lastName("Last" + id)
+                    .email("employee" + id + "@example.com")
+                    .version(1)
+                    .build());
+        }
+        encoded = objectMapper.writeValueAsBytes(employees);
+        PayloadSizeProfiler.record(encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return objectMapper.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public Employee[] decode() throws Exception {
+        return reader.readValue(encoded);
+    }
+
+    // the mapper of the first Jackson converter for the format, as content negotiation would pick it
+    private static ObjectMapper objectMapper(ConfigurableApplicationContext context, MediaType mediaType) {
+        return context.getBean(RequestMappingHandlerAdapter.class).getMessageConverters().stream()
+                .filter(converter -> converter instanceof AbstractJackson2HttpMessageConverter)
+                .map(converter -> (AbstractJackson2HttpMessageConverter) converter)
+                .filter(converter -> converter.getSupportedMediaTypes().contains(mediaType))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No Jackson converter for " + mediaType))
+                .getObjectMapper();
+    }
+
+    private static MediaType mediaType(String format) {
+        switch (format) {
+            case "smile":
+                return new MediaType("application", "x-jackson-smile");
+            case "cbor":
+                return MediaType.APPLICATION_CBOR;
+            default:
+                return MediaType.APPLICATION_JSON;
+        }
+    }
+}
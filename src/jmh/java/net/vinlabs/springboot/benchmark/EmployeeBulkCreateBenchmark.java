@@ -0,0 +1,107 @@
+package net.vinlabs.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Employees created per second: N single-item POSTs versus one POST /_bulk carrying the same N employees.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EmployeeBulkCreateBenchmark {
+
+    private static final int EMPLOYEES_PER_CALL = 100;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper objectMapper;
+    private HttpClient client;
+    private URI singleUri;
+    private URI bulkUri;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET);
+        objectMapper = context.getBean(ObjectMapper.class);
+        client = HttpClient.newHttpClient();
+        int port = BenchmarkApplication.port(context);
+        singleUri = URI.create("http://localhost:" + port + "/api/employees");
+        bulkUri = URI.create("http://localhost:" + port + "/api/employees/_bulk");
+    }
+
+    @Setup(Level.Iteration)
+    public void clearTable() {
+        context.getBean(EmployeeRepository.class).deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EMPLOYEES_PER_CALL)
+    public void singlePostLoop() throws Exception {
+        for (int i = 0; i < EMPLOYEES_PER_CALL; i++) {
+            post(singleUri, objectMapper.writeValueAsString(nextEmployee()), 201);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EMPLOYEES_PER_CALL)
+    public void bulkPost() throws Exception {
+        List<Employee> employees = new ArrayList<>(EMPLOYEES_PER_CALL);
+        for (int i = 0; i < EMPLOYEES_PER_CALL; i++) {
+            employees.add(nextEmployee());
+        }
+        post(bulkUri, objectMapper.writeValueAsString(employees), 200);
+    }
+
+    private Employee nextEmployee() {
+        long n = sequence.incrementAndGet();
+        return Employee.builder()
+                .firstName("First" + n)
+                .lastName("Last" + n)
+                .email("employee" + n + "@example.com")
+                .build();
+    }
+
+    private void post(URI uri, String body, int expectedStatus) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + ": " + response.body());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package net.vinlabs.springboot.benchmark;
+
+import net.vinlabs.springboot.dto.EmployeeSummary;
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.repository.EmployeeRepository;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// The four first/last name lookups of EmployeeRepository plus the DTO projection, on tables of growing size.
+// Allocation and statement count per call need the profilers:
+// -Djmh.args="-prof gc -prof net.vinlabs.springboot.benchmark.StatementCountProfiler"
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EmployeeNameLookupBenchmark {
+
+    private static final int INSERT_CHUNK = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository employeeRepository;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        // caches off: this compares the cost of the queries themselves
+        context = BenchmarkApplication.start(WebApplicationType.NONE,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        StatementCountProfiler.register(
+                context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics());
+
+        for (int from = 0; from < rows; from += INSERT_CHUNK) {
+            List<Employee> chunk = new ArrayList<>(INSERT_CHUNK);
+            for (int n = from; n < Math.min(rows, from + INSERT_CHUNK); n++) {
+                chunk.add(Employee.builder()
+                        .firstName("First" + n)
+                        .lastName("Last" + n)
+                        .email("employee" + n + "@example.com")
+                        .build());
+            }
+            employeeRepository.batchInsert(chunk);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee findByJPQL() {
+        int n = nextRow();
+        return employeeRepository.findByJPQL("First" + n, "Last" + n);
+    }
+
+    @Benchmark
+    public Employee findByJPQLNamedParams() {
+        int n = nextRow();
+        return employeeRepository.findByJPQLNamedParams("First" + n, "Last" + n);
+    }
+
+    @Benchmark
+    public Employee findByNativeSQL() {
+        int n = nextRow();
+        return employeeRepository.findByNativeSQL("First" + n, "Last" + n);
+    }
+
+    @Benchmark
+    public Employee findByNativeSQLNamedParams() {
+        int n = nextRow();
+        return employeeRepository.findByNativeSQLLNamedParams("First" + n, "Last" + n);
+    }
+
+    @Benchmark
+    public EmployeeSummary findSummaryByName() {
+        int n = nextRow();
+        return employeeRepository.findSummaryByName("First" + n, "Last" + n);
+    }
+
+    private int nextRow() {
+        return ThreadLocalRandom.current().nextInt(rows);
+    }
+}
@@ -0,0 +1,147 @@
+package net.vinlabs.springboot.benchmark;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Load test for the adaptive concurrency limit: 64 clients against a database that takes 20ms per statement
+// behind a pool of 4 connections, i.e. several times the load it can serve. Reported per second:
+//   good     responses within the 100ms latency objective (goodput)
+//   slow     successful responses that missed it
+//   shed     503s from the limiter
+//   failed   anything else, e.g. 500s for connections that could not be obtained within the pool timeout
+// Without the limiter every request queues for a connection and goodput collapses; with it the admitted ones
+// stay fast and the rest are turned away at once. Clients pause 50ms after a 503 instead of retrying at once.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(64)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EmployeeOverloadBenchmark {
+
+    private static final int EMPLOYEES = 1000;
+    private static final long STATEMENT_DELAY_MILLIS = 20;
+    private static final long LATENCY_OBJECTIVE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SHED_PAUSE_MILLIS = 50;
+
+    @Param({"off", "on"})
+    private String limiter;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private List<URI> uris;
+
+    @State(Scope.Thread)
+    // OPERATIONS: reported as rates over the iteration, EVENTS would be raw per-iteration totals
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+        public long good;
+        public long slow;
+        public long shed;
+        public long failed;
+    }
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET,
+                "employees.concurrency-limit.enabled=" + "on".equals(limiter),
+                // the bulkheads shed with 503 as well, without them "off" is the unprotected baseline
+                "employees.bulkhead.enabled=false",
+                // every read has to go to the database
+                "spring.cache.type=none",
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                "spring.datasource.hikari.maximum-pool-size=4",
+                "spring.datasource.hikari.connection-timeout=250",
+                "server.tomcat.threads.max=200",
+                // pool timeouts are an expected outcome here, counted as failed rather than logged
+                "logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=OFF",
+                "logging.level.org.apache.catalina.core=OFF");
+
+        List<Employee> employees = new ArrayList<>(EMPLOYEES);
+        for (int n = 0; n < EMPLOYEES; n++) {
+            employees.add(Employee.builder().firstName("First" + n).lastName("Last" + n).email("employee" + n + "@example.com").build());
+        }
+        int port = BenchmarkApplication.port(context);
+        uris = new ArrayList<>(EMPLOYEES);
+        for (Employee employee : employees) {
+            context.getBean(EmployeeService.class).saveEmployee(employee);
+            uris.add(URI.create("http://localhost:" + port + "/api/employees/" + employee.getId()));
+        }
+
+        // the slow database, added after seeding
+        ((ProxyDataSource) context.getBean(DataSource.class)).addListener(new QueryExecutionListener() {
+            @Override
+            public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                try {
+                    Thread.sleep(STATEMENT_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            }
+        });
+        client = HttpClient.newHttpClient();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getEmployee(Outcomes outcomes) throws Exception {
+        URI uri = uris.get(ThreadLocalRandom.current().nextInt(uris.size()));
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofString());
+        long elapsed = System.nanoTime() - start;
+        if (response.statusCode() == 200) {
+            if (elapsed <= LATENCY_OBJECTIVE_NANOS) {
+                outcomes.good++;
+            } else {
+                outcomes.slow++;
+            }
+        } else if (response.statusCode() == 503) {
+            outcomes.shed++;
+            Thread.sleep(SHED_PAUSE_MILLIS);
+        } else {
+            outcomes.failed++;
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,57 @@
+package net.vinlabs.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.vinlabs.springboot.model.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson serialization of employee lists as returned by GET /api/employees.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeSerializationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Employee> employees;
+
+    @Setup
+    public void setup() {
+        // same builder Spring MVC uses for its message converters
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        employees = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            employees.add(Employee.builder()
+                    .id(id)
+                    .firstName("First" + id)
+                    .lastName("Last" + id)
+                    .email("employee" + id + "@example.com")
+                    .version(1)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws Exception {
+        return objectMapper.writeValueAsBytes(employees);
+    }
+}
@@ -0,0 +1,99 @@
+package net.vinlabs.springboot.benchmark;
+
+import net.vinlabs.springboot.config.CacheConfig;
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.repository.EmployeeRepository;
+import net.vinlabs.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// EmployeeService calls through the full Spring proxy chain (transactions, cache, metrics) on H2 in MySQL mode.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+    private static final int SEEDED_EMPLOYEES = 1_000;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private Cache cache;
+    private long[] ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE);
+        employeeService = context.getBean(EmployeeService.class);
+        cache = context.getBean(CacheManager.class).getCache(CacheConfig.EMPLOYEES_CACHE);
+
+        List<Employee> seed = new ArrayList<>(SEEDED_EMPLOYEES);
+        for (int i = 0; i < SEEDED_EMPLOYEES; i++) {
+            seed.add(nextEmployee());
+        }
+        context.getBean(EmployeeRepository.class).batchInsert(seed);
+        ids = seed.stream().mapToLong(Employee::getId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        return employeeService.saveEmployee(nextEmployee());
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeByIdCached() {
+        return employeeService.getEmployeeById(nextId());
+    }
+
+    // evicting first forces the read through to the database on every call
+    @Benchmark
+    public Optional<Employee> getEmployeeByIdUncached() {
+        long id = nextId();
+        cache.evict(id);
+        return employeeService.getEmployeeById(id);
+    }
+
+    private long nextId() {
+        next = (next + 1) % ids.length;
+        return ids[next];
+    }
+
+    private Employee nextEmployee() {
+        long n = sequence.incrementAndGet();
+        return Employee.builder()
+                .firstName("First" + n)
+                .lastName("Last" + n)
+                .email("employee" + n + "@example.com")
+                .build();
+    }
+}
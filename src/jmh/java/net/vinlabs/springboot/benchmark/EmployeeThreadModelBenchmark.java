@@ -0,0 +1,190 @@
+package net.vinlabs.springboot.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.vinlabs.springboot.concurrency.ConcurrencyLimitFilter;
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Request handling on Tomcat's pool of 200 platform threads versus one virtual thread per request, for bursts of
+// 1000 concurrent lookups against a database that takes 20ms per statement behind 400 connections: the platform
+// pool caps the requests in flight, virtual threads leave that to the connection pool. The virtual mode needs
+// Java 21 (-p threads=platform on older runtimes).
+// Memory per in-flight request (heap and committed thread stacks from Native Memory Tracking added on top of the
+// idle application, measured with a burst parked on the database once per iteration) needs -Djmh.args="-prof net.vinlabs.springboot.benchmark.InFlightMemoryProfiler"
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-XX:NativeMemoryTracking=summary")
+public class EmployeeThreadModelBenchmark {
+
+    private static final int BURST = 1000;
+    private static final int EMPLOYEES = 1000;
+    private static final long STATEMENT_DELAY_MILLIS = 20;
+    private static final long PROBE_DELAY_MILLIS = 1000;
+    private static final int CLIENT_THREADS = 64;
+    private static final Pattern NMT_THREAD_COMMITTED = Pattern.compile("Thread \\(reserved=\\d+KB, committed=(\\d+)KB\\)");
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    private volatile long statementDelayMillis = STATEMENT_DELAY_MILLIS;
+
+    private ConfigurableApplicationContext context;
+    private MeterRegistry meterRegistry;
+    private ExecutorService clientExecutor;
+    private HttpClient client;
+    private List<URI> uris;
+    private long idleThreadStacks;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws Exception {
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET,
+                "employees.virtual-threads.enabled=" + "virtual".equals(threads),
+                "spring.datasource.hikari.maximum-pool-size=400",
+                // every lookup goes to the database, none is shed or held back: threads are the only limit
+                "spring.cache.type=none",
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "employees.bulkhead.enabled=false",
+                "employees.concurrency-limit.read.initial=100000",
+                "employees.concurrency-limit.read.min=100000",
+                "employees.concurrency-limit.read.max=100000");
+        meterRegistry = context.getBean(MeterRegistry.class);
+
+        int port = BenchmarkApplication.port(context);
+        uris = new ArrayList<>(EMPLOYEES);
+        for (int n = 0; n < EMPLOYEES; n++) {
+            Employee employee = context.getBean(EmployeeService.class).saveEmployee(Employee.builder()
+                    .firstName("First" + n).lastName("Last" + n).email("employee" + n + "@example.com").build());
+            uris.add(URI.create("http://localhost:" + port + "/api/employees/" + employee.getId()));
+        }
+        ((ProxyDataSource) context.getBean(DataSource.class)).addListener(new QueryExecutionListener() {
+            @Override
+            public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                try {
+                    Thread.sleep(statementDelayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            }
+        });
+        // fixed and prestarted, large enough not to slow the burst down: the client's own threads must not grow with
+        // the burst and count as server thread stacks
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(CLIENT_THREADS, CLIENT_THREADS, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>());
+        executor.prestartAllCoreThreads();
+        clientExecutor = executor;
+        client = HttpClient.newBuilder().executor(clientExecutor).build();
+        client.send(HttpRequest.newBuilder(uris.get(0)).GET().build(), HttpResponse.BodyHandlers.discarding());
+        // once, before the first burst: pool and carrier threads started for a burst are kept for the next one,
+        // a baseline taken before each burst would no longer contain them
+        idleThreadStacks = committedThreadStacks();
+    }
+
+    // untimed: park a burst on a slow database, then compare memory with and without it in flight
+    @Setup(Level.Iteration)
+    public void measureMemoryPerRequest() throws Exception {
+        long idleHeap = liveHeap();
+        statementDelayMillis = PROBE_DELAY_MILLIS;
+        CompletableFuture<?> burst = sendBurst();
+        // sampled once the requests in flight held still for 100ms, a ramp opening connections can pause briefly
+        int inFlight = 0;
+        int unchanged = 0;
+        for (int i = 0; i < 90 && unchanged < 10; i++) {
+            Thread.sleep(10);
+            int now = (int) meterRegistry.get(ConcurrencyLimitFilter.IN_FLIGHT).tag("operation", "read").gauge().value();
+            unchanged = now == inFlight && now > 0 ? unchanged + 1 : 0;
+            inFlight = now;
+        }
+        long loadedHeap = liveHeap();
+        long threadStacks = committedThreadStacks();
+        statementDelayMillis = STATEMENT_DELAY_MILLIS;
+        burst.get(1, TimeUnit.MINUTES);
+        if (inFlight > 0) {
+            InFlightMemoryProfiler.record((double) (loadedHeap - idleHeap) / inFlight,
+                    (double) (threadStacks - idleThreadStacks) / inFlight, inFlight);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+        clientExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void lookupBurst() throws Exception {
+        sendBurst().get(1, TimeUnit.MINUTES);
+    }
+
+    private CompletableFuture<?> sendBurst() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[BURST];
+        for (int i = 0; i < BURST; i++) {
+            HttpRequest request = HttpRequest.newBuilder(uris.get(i % uris.size())).GET().build();
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenAccept(response -> {
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Unexpected status " + response.statusCode());
+                }
+            });
+        }
+        return CompletableFuture.allOf(responses);
+    }
+
+    // virtual thread stacks live on the heap
+    private static long liveHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // platform thread stacks are native memory
+    private static long committedThreadStacks() throws Exception {
+        String summary = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+                new ObjectName("com.sun.management:type=DiagnosticCommand"), "vmNativeMemory",
+                new Object[]{new String[]{"summary"}}, new String[]{String[].class.getName()});
+        Matcher matcher = NMT_THREAD_COMMITTED.matcher(summary);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) * 1024 : 0;
+    }
+}
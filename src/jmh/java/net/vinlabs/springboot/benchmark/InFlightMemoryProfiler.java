@@ -0,0 +1,51 @@
+package net.vinlabs.springboot.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Reports the memory per request in flight, as measured by the benchmark itself once per iteration: the heap and the
+// committed thread stacks a burst adds to the idle application, divided by the requests in flight; enable with
+// -prof net.vinlabs.springboot.benchmark.InFlightMemoryProfiler.
+public class InFlightMemoryProfiler implements InternalProfiler {
+
+    private static volatile double heapPerRequest = Double.NaN;
+    private static volatile double threadStacksPerRequest;
+    private static volatile int requestsInFlight;
+
+    static void record(double heapBytes, double threadStackBytes, int inFlight) {
+        heapPerRequest = heapBytes;
+        threadStacksPerRequest = threadStackBytes;
+        requestsInFlight = inFlight;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Heap and thread stack memory per in-flight request";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        if (Double.isNaN(heapPerRequest)) {
+            return List.of();
+        }
+        List<Result> results = new ArrayList<>();
+        results.add(new ScalarResult("·heap.per.request", heapPerRequest, "B/request", AggregationPolicy.AVG));
+        results.add(new ScalarResult("·thread.stacks.per.request", threadStacksPerRequest, "B/request", AggregationPolicy.AVG));
+        results.add(new ScalarResult("·requests.in.flight", requestsInFlight, "requests", AggregationPolicy.AVG));
+        return results;
+    }
+}
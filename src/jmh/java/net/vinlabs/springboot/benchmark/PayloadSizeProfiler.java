@@ -0,0 +1,42 @@
+package net.vinlabs.springboot.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.util.Collection;
+import java.util.Collections;
+
+// Reports the encoded size of the benchmark's payload, recorded once by the benchmark in its setup; enable with
+// -prof net.vinlabs.springboot.benchmark.PayloadSizeProfiler.
+public class PayloadSizeProfiler implements InternalProfiler {
+
+    private static volatile long payloadBytes = -1;
+
+    static void record(long bytes) {
+        payloadBytes = bytes;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Encoded payload size";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        if (payloadBytes < 0) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(
+                new ScalarResult("·payload.bytes", payloadBytes, "B", AggregationPolicy.AVG));
+    }
+}
@@ -0,0 +1,49 @@
+package net.vinlabs.springboot.benchmark;
+
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.util.Collection;
+import java.util.Collections;
+
+// Reports JDBC statements prepared by Hibernate per benchmark operation, enable with
+// -prof net.vinlabs.springboot.benchmark.StatementCountProfiler. Benchmarks opt in through register().
+public class StatementCountProfiler implements InternalProfiler {
+
+    private static volatile Statistics statistics;
+
+    private long statementsBefore;
+
+    static void register(Statistics hibernateStatistics) {
+        hibernateStatistics.setStatisticsEnabled(true);
+        statistics = hibernateStatistics;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Hibernate prepared statement count per operation";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        statementsBefore = statistics == null ? 0 : statistics.getPrepareStatementCount();
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        long operations = result.getMetadata().getMeasuredOps();
+        if (statistics == null || operations == 0) {
+            return Collections.emptyList();
+        }
+        double perOperation = (double) (statistics.getPrepareStatementCount() - statementsBefore) / operations;
+        return Collections.singletonList(
+                new ScalarResult("·statements", perOperation, "statements/op", AggregationPolicy.AVG));
+    }
+}
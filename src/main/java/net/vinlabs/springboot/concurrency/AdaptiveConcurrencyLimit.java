@@ -0,0 +1,111 @@
+package net.vinlabs.springboot.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Concurrency limit that follows observed latency, along the lines of the gradient algorithm: every window of
+// samples the average latency is compared with the no-load latency (the fastest request seen, drifting up slowly
+// so a lasting slowdown eventually becomes the new normal). While it stays within tolerance the limit
+// grows by about sqrt(limit); when requests start queueing behind a slow resource the limit shrinks in
+// proportion. Failed requests cut the limit multiplicatively, as in AIMD.
+public class AdaptiveConcurrencyLimit {
+
+    private static final int WINDOW_SIZE = 10;
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_DRIFT = 0.01;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private volatile int limit;
+
+    // guarded by this
+    private double estimatedLimit;
+    private double baselineRtt;
+    private long windowRttSum;
+    private long windowMinRtt;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // dropped: the request failed in a way that points at overload (timeouts, 5xx)
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightBeforeRelease = inFlight.getAndDecrement();
+        sample(rttNanos, inFlightBeforeRelease, dropped);
+    }
+
+    // for requests whose duration says nothing about the load, e.g. long-running streams
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void sample(long rttNanos, int inFlightBeforeRelease, boolean dropped) {
+        windowRttSum += rttNanos;
+        windowMinRtt = windowSamples == 0 ? rttNanos : Math.min(windowMinRtt, rttNanos);
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightBeforeRelease);
+        windowDropped |= dropped;
+        if (windowSamples < WINDOW_SIZE) {
+            return;
+        }
+        double shortRtt = (double) windowRttSum / windowSamples;
+        update(shortRtt, windowMinRtt, windowMaxInFlight, windowDropped);
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+    }
+
+    // even under overload some requests get a connection right away, the fastest one is the no-load latency
+    private void update(double shortRtt, long minRtt, int maxInFlight, boolean dropped) {
+        if (baselineRtt == 0 || minRtt < baselineRtt) {
+            baselineRtt = minRtt;
+        } else {
+            baselineRtt += (minRtt - baselineRtt) * BASELINE_DRIFT;
+        }
+
+        if (dropped) {
+            estimatedLimit = estimatedLimit * BACKOFF_RATIO;
+        } else if (maxInFlight < estimatedLimit / 2) {
+            // far below the limit, latency says nothing about how much more could be admitted
+            return;
+        } else {
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineRtt / shortRtt));
+            double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            estimatedLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+}
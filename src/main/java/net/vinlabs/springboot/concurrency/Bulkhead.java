@@ -0,0 +1,34 @@
+package net.vinlabs.springboot.concurrency;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// A fixed number of permits for one class of calls; a caller waits at most maxWait for one, then gives up.
+public class Bulkhead {
+
+    private final Semaphore permits;
+    private final long maxWaitNanos;
+
+    public Bulkhead(int permits, Duration maxWait) {
+        this.permits = new Semaphore(permits, true);
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    public boolean tryEnter() {
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public void exit() {
+        permits.release();
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+}
@@ -0,0 +1,123 @@
+package net.vinlabs.springboot.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+// Admits a request only while its operation type is under its adaptive limit, and answers 503 with Retry-After
+// otherwise, before a request thread is spent waiting on a database connection. Reads and writes have separate
+// limits so a slow bulk import does not starve lookups and the other way round.
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public static final String LIMIT = "employees.concurrency.limit";
+    public static final String IN_FLIGHT = "employees.concurrency.in.flight";
+    public static final String REJECTED = "employees.concurrency.rejected";
+
+    private AdaptiveConcurrencyLimit readLimit;
+    private AdaptiveConcurrencyLimit writeLimit;
+    private String retryAfterSeconds;
+    private Counter readsRejected;
+    private Counter writesRejected;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit readLimit,
+                                  AdaptiveConcurrencyLimit writeLimit,
+                                  Duration retryAfter,
+                                  MeterRegistry meterRegistry) {
+        this.readLimit = readLimit;
+        this.writeLimit = writeLimit;
+        // whole seconds only, rounded up so the client never comes back earlier than configured
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.getSeconds() + (retryAfter.getNano() > 0 ? 1 : 0)));
+        this.readsRejected = register(meterRegistry, "read", readLimit);
+        this.writesRejected = register(meterRegistry, "write", writeLimit);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean read = isRead(request);
+        AdaptiveConcurrencyLimit limit = read ? readLimit : writeLimit;
+        if (!limit.tryAcquire()) {
+            (read ? readsRejected : writesRejected).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean released = false;
+        // an exception escaping the chain is an unhandled failure, whatever status the response still carries
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+            if (request.isAsyncStarted()) {
+                // streams and deferred results hold their slot until they complete, their duration is not a latency
+                request.getAsyncContext().addListener(new ReleaseOnComplete(limit));
+                released = true;
+            }
+        } finally {
+            if (!released) {
+                limit.release(System.nanoTime() - start, failed || response.getStatus() >= 500);
+            }
+        }
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method);
+    }
+
+    private static Counter register(MeterRegistry meterRegistry, String operation, AdaptiveConcurrencyLimit limit) {
+        Gauge.builder(LIMIT, limit, AdaptiveConcurrencyLimit::getLimit)
+                .tag("operation", operation)
+                .description("Current adaptive limit of concurrent requests")
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT, limit, AdaptiveConcurrencyLimit::getInFlight)
+                .tag("operation", operation)
+                .description("Requests currently admitted")
+                .register(meterRegistry);
+        return Counter.builder(REJECTED)
+                .tag("operation", operation)
+                .description("Requests answered 503 because the limit was reached")
+                .register(meterRegistry);
+    }
+
+    private static final class ReleaseOnComplete implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimit limit;
+
+        private ReleaseOnComplete(AdaptiveConcurrencyLimit limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limit.releaseWithoutSample();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
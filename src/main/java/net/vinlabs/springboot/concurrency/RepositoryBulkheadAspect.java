@@ -0,0 +1,122 @@
+package net.vinlabs.springboot.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.vinlabs.springboot.exception.BulkheadFullException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Runs every EmployeeRepository call in the bulkhead of its operation class, so slow list queries can hold at most
+// the bulk-read permits (and as many pooled connections) while point reads and writes keep their own.
+// Calls made outside a transaction get one with the operation's timeout, which Hibernate and JdbcTemplate turn
+// into JDBC statement timeouts; calls inside a service transaction run under that transaction's timeout.
+@Aspect
+@Component
+@ConditionalOnProperty(name = "employees.bulkhead.enabled", matchIfMissing = true)
+public class RepositoryBulkheadAspect {
+
+    public static final String AVAILABLE = "employees.bulkhead.available";
+    public static final String REJECTED = "employees.bulkhead.rejected";
+    public static final String TIMEOUTS = "employees.bulkhead.timeouts";
+
+    private final Map<Method, RepositoryOperation> operations = new ConcurrentHashMap<>();
+    private final Map<RepositoryOperation, Guard> guards = new EnumMap<>(RepositoryOperation.class);
+
+    public RepositoryBulkheadAspect(PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${employees.bulkhead.point-read.permits:20}") int pointReadPermits,
+                                    @Value("${employees.bulkhead.point-read.max-wait:100ms}") Duration pointReadMaxWait,
+                                    @Value("${employees.bulkhead.point-read.timeout-seconds:2}") int pointReadTimeout,
+                                    @Value("${employees.bulkhead.bulk-read.permits:3}") int bulkReadPermits,
+                                    @Value("${employees.bulkhead.bulk-read.max-wait:250ms}") Duration bulkReadMaxWait,
+                                    @Value("${employees.bulkhead.bulk-read.timeout-seconds:30}") int bulkReadTimeout,
+                                    @Value("${employees.bulkhead.write.permits:5}") int writePermits,
+                                    @Value("${employees.bulkhead.write.max-wait:1s}") Duration writeMaxWait,
+                                    @Value("${employees.bulkhead.write.timeout-seconds:10}") int writeTimeout) {
+        guards.put(RepositoryOperation.POINT_READ, new Guard(RepositoryOperation.POINT_READ,
+                new Bulkhead(pointReadPermits, pointReadMaxWait), pointReadTimeout, transactionManager, meterRegistry));
+        guards.put(RepositoryOperation.BULK_READ, new Guard(RepositoryOperation.BULK_READ,
+                new Bulkhead(bulkReadPermits, bulkReadMaxWait), bulkReadTimeout, transactionManager, meterRegistry));
+        guards.put(RepositoryOperation.WRITE, new Guard(RepositoryOperation.WRITE,
+                new Bulkhead(writePermits, writeMaxWait), writeTimeout, transactionManager, meterRegistry));
+    }
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object guard(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Guard guard = guards.get(operations.computeIfAbsent(method, RepositoryOperation::of));
+        if (!guard.bulkhead.tryEnter()) {
+            guard.rejected.increment();
+            throw new BulkheadFullException(guard.operation.getKey());
+        }
+        try {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                return joinPoint.proceed();
+            }
+            return guard.transactionTemplate.execute(status -> proceed(joinPoint));
+        } catch (QueryTimeoutException | TransactionTimedOutException e) {
+            guard.timeouts.increment();
+            throw e;
+        } finally {
+            guard.bulkhead.exit();
+        }
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return joinPoint.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    private static final class Guard {
+
+        private final RepositoryOperation operation;
+        private final Bulkhead bulkhead;
+        private final TransactionTemplate transactionTemplate;
+        private final Counter rejected;
+        private final Counter timeouts;
+
+        private Guard(RepositoryOperation operation, Bulkhead bulkhead, int timeoutSeconds,
+                      PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+            this.operation = operation;
+            this.bulkhead = bulkhead;
+            this.transactionTemplate = new TransactionTemplate(transactionManager);
+            this.transactionTemplate.setTimeout(timeoutSeconds);
+            this.transactionTemplate.setReadOnly(operation != RepositoryOperation.WRITE);
+            Gauge.builder(AVAILABLE, bulkhead, Bulkhead::getAvailablePermits)
+                    .tag("operation", operation.getKey())
+                    .description("Free permits of the repository bulkhead")
+                    .register(meterRegistry);
+            this.rejected = Counter.builder(REJECTED)
+                    .tag("operation", operation.getKey())
+                    .description("Repository calls refused because the bulkhead stayed full")
+                    .register(meterRegistry);
+            this.timeouts = Counter.builder(TIMEOUTS)
+                    .tag("operation", operation.getKey())
+                    .description("Repository calls cancelled by a statement or transaction timeout")
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package net.vinlabs.springboot.concurrency;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// How a repository method uses the database, which decides the bulkhead it runs in.
+public enum RepositoryOperation {
+
+    // one row by key (findById, findByEmail, findByJPQL, ...)
+    POINT_READ("point-read"),
+    // any number of rows: lists, pages, streams, counts and full scans
+    BULK_READ("bulk-read"),
+    WRITE("write");
+
+    private static final List<String> WRITE_PREFIXES = List.of("save", "delete", "batchInsert", "insert", "update", "flush");
+
+    private final String key;
+
+    RepositoryOperation(String key) {
+        this.key = key;
+    }
+
+    // also the property prefix under employees.bulkhead
+    public String getKey() {
+        return key;
+    }
+
+    public static RepositoryOperation of(Method method) {
+        String name = method.getName();
+        if (WRITE_PREFIXES.stream().anyMatch(name::startsWith)) {
+            return WRITE;
+        }
+        Class<?> type = method.getReturnType();
+        if (name.startsWith("count") || name.startsWith("scroll")
+                || Iterable.class.isAssignableFrom(type) || Stream.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) {
+            return BULK_READ;
+        }
+        return POINT_READ;
+    }
+}
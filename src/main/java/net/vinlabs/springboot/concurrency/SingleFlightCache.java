@@ -0,0 +1,133 @@
+package net.vinlabs.springboot.concurrency;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// @Cacheable(sync = true) loads for a missing key once, like the cache it wraps, but outside any lock: Caffeine runs
+// the loader inside a ConcurrentHashMap bin lock, which pins a virtual thread's carrier for the whole database read
+// and pins one more for every caller waiting on that bin. Here the first caller loads and the others park on its
+// future. An evict, put or clear while a load runs detaches it: its callers still get the value, but it is not
+// cached over the newer state, as Caffeine's invalidate waiting for the computing bin would ensure.
+public class SingleFlightCache implements Cache {
+
+    private final Cache delegate;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+    private final AtomicLong clears = new AtomicLong();
+
+    public SingleFlightCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        long generation = clears.get();
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> running = loads.putIfAbsent(key, load);
+        if (running != null) {
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+        // not looked up again: that would count a second miss. A load finishing between the lookup above and
+        // putIfAbsent only means the key is loaded twice, as with sync = false
+        try {
+            T value = valueLoader.call();
+            // only while still attached, the bin lock is held for the put alone
+            loads.computeIfPresent(key, (k, current) -> {
+                if (current == load && clears.get() == generation) {
+                    delegate.put(key, value);
+                }
+                return current;
+            });
+            load.complete(value);
+            return value;
+        } catch (Throwable e) {
+            load.completeExceptionally(e);
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        detach(key, () -> delegate.put(key, value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper[] existing = new ValueWrapper[1];
+        detach(key, () -> existing[0] = delegate.putIfAbsent(key, value));
+        return existing[0];
+    }
+
+    @Override
+    public void evict(Object key) {
+        detach(key, () -> delegate.evict(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean[] evicted = new boolean[1];
+        detach(key, () -> evicted[0] = delegate.evictIfPresent(key));
+        return evicted[0];
+    }
+
+    @Override
+    public void clear() {
+        clears.incrementAndGet();
+        loads.clear();
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        clears.incrementAndGet();
+        loads.clear();
+        return delegate.invalidate();
+    }
+
+    // atomic with the loader's put: either the load is cached first and then changed, or it is not cached at all
+    private void detach(Object key, Runnable change) {
+        loads.compute(key, (k, current) -> {
+            change.run();
+            return null;
+        });
+    }
+}
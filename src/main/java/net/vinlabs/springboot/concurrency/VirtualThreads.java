@@ -0,0 +1,60 @@
+package net.vinlabs.springboot.concurrency;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// The project compiles for Java 11, so the virtual thread API (Java 21) is reached through reflection.
+public final class VirtualThreads {
+
+    public static final String PARALLELISM_PROPERTY = "jdk.virtualThreadScheduler.parallelism";
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        try {
+            virtualThreadFactory("probe-");
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    // one new virtual thread per task, named prefix0, prefix1, ...
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        ThreadFactory factory = virtualThreadFactory(namePrefix);
+        try {
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw unsupported(e);
+        }
+    }
+
+    // the carrier count is read once, when the first virtual thread is created, so this has to come before that
+    public static void setCarrierParallelismIfUnset(int parallelism) {
+        if (System.getProperty(PARALLELISM_PROPERTY) == null) {
+            System.setProperty(PARALLELISM_PROPERTY, String.valueOf(parallelism));
+        }
+    }
+
+    private static ThreadFactory virtualThreadFactory(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // NoSuchMethodException before Java 19, UnsupportedOperationException on 19 and 20 without --enable-preview
+            throw unsupported(e);
+        }
+    }
+
+    private static IllegalStateException unsupported(Exception e) {
+        Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+        return new IllegalStateException("Virtual threads need Java 21 or later, running on Java " + Runtime.version(), cause);
+    }
+}
@@ -0,0 +1,77 @@
+package net.vinlabs.springboot.config;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.vinlabs.springboot.concurrency.SingleFlightCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.interceptor.CacheResolver;
+import org.springframework.cache.interceptor.SimpleCacheResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // size, TTL and recordStats come from spring.cache.caffeine.spec
+    public static final String EMPLOYEES_CACHE = "employees";
+    public static final String LOOKUP_CACHE_RESOLVER = "employeeLookupCacheResolver";
+
+    // for the sync = true lookups: the cache manager's caches as they are, or with virtual threads wrapped in a
+    // SingleFlightCache so a load never holds a carrier-pinning monitor. Caffeine then no longer times the loads,
+    // cache.load.duration stays empty in that mode; cache.gets and cache.hit.ratio are unaffected
+    @Bean(LOOKUP_CACHE_RESOLVER)
+    public CacheResolver employeeLookupCacheResolver(CacheManager cacheManager,
+                                                     @Value("${employees.virtual-threads.enabled:false}") boolean virtualThreads) {
+        if (!virtualThreads) {
+            return new SimpleCacheResolver(cacheManager);
+        }
+        Map<String, Cache> singleFlightCaches = new ConcurrentHashMap<>();
+        return new SimpleCacheResolver(cacheManager) {
+            @Override
+            public Collection<? extends Cache> resolveCaches(CacheOperationInvocationContext<?> context) {
+                return super.resolveCaches(context).stream()
+                        .map(cache -> singleFlightCaches.computeIfAbsent(cache.getName(), name -> new SingleFlightCache(cache)))
+                        .collect(Collectors.toList());
+            }
+        };
+    }
+
+    // the built-in Caffeine binder publishes hits, misses, puts and evictions but leaves out
+    // load times for caches that are not LoadingCaches, so add those and the hit ratio here
+    @Bean
+    public MeterBinder employeesCacheLoadMetrics(CacheManager cacheManager) {
+        return registry -> {
+            if (!(cacheManager.getCache(EMPLOYEES_CACHE) instanceof CaffeineCache)) {
+                return;
+            }
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> cache =
+                    ((CaffeineCache) cacheManager.getCache(EMPLOYEES_CACHE)).getNativeCache();
+            Tags tags = Tags.of("cache", EMPLOYEES_CACHE);
+            FunctionTimer.builder("cache.load.duration", cache,
+                            c -> c.stats().loadCount(),
+                            c -> c.stats().totalLoadTime(),
+                            TimeUnit.NANOSECONDS)
+                    .tags(tags)
+                    .description("Time spent loading missing entries from the database")
+                    .register(registry);
+            Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                    .tags(tags)
+                    .description("Share of lookups answered from the cache")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package net.vinlabs.springboot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.vinlabs.springboot.concurrency.AdaptiveConcurrencyLimit;
+import net.vinlabs.springboot.concurrency.ConcurrencyLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "employees.concurrency-limit.enabled", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    // only the API, health checks and metrics scrapes are never shed
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${employees.concurrency-limit.read.initial:20}") int readInitial,
+            @Value("${employees.concurrency-limit.read.min:4}") int readMin,
+            @Value("${employees.concurrency-limit.read.max:200}") int readMax,
+            @Value("${employees.concurrency-limit.write.initial:10}") int writeInitial,
+            @Value("${employees.concurrency-limit.write.min:2}") int writeMin,
+            @Value("${employees.concurrency-limit.write.max:100}") int writeMax,
+            @Value("${employees.concurrency-limit.tolerance:1.5}") double tolerance,
+            @Value("${employees.concurrency-limit.retry-after:1s}") Duration retryAfter,
+            MeterRegistry meterRegistry) {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(
+                new AdaptiveConcurrencyLimit(readInitial, readMin, readMax, tolerance),
+                new AdaptiveConcurrencyLimit(writeInitial, writeMin, writeMax, tolerance),
+                retryAfter,
+                meterRegistry);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        // ahead of everything that does work for the request, after the metrics filter so shed requests are counted
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,42 @@
+package net.vinlabs.springboot.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import net.vinlabs.springboot.logging.SlowQueryLogListener;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "employees.sql-log.enabled", matchIfMissing = true)
+public class SlowQueryLogConfig {
+
+    // logger name the async appender in logback-spring.xml is attached to
+    public static final String LOGGER_NAME = "employees.sql";
+
+    // static: post-processors are created before regular beans
+    @Bean
+    public static BeanPostProcessor slowQueryLogDataSourceProxy(
+            @Value("${employees.sql-log.slow-threshold:200ms}") Duration slowThreshold,
+            @Value("${employees.sql-log.sample-rate:0}") double sampleRate) {
+        SlowQueryLogListener listener = new SlowQueryLogListener(LoggerFactory.getLogger(LOGGER_NAME), slowThreshold, sampleRate);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create((DataSource) bean)
+                        .name(beanName)
+                        .listener(listener)
+                        .build();
+            }
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package net.vinlabs.springboot.config;
+
+import net.vinlabs.springboot.concurrency.VirtualThreads;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+// Tomcat handles every request on its own virtual thread instead of a pooled platform thread (Java 21+,
+// startup fails on older runtimes). Blocking JDBC calls then no longer cap concurrency at server.tomcat.threads.max;
+// the connection pool, the bulkheads and the concurrency limits do. The application's own waits that can be long
+// park rather than pin: the snapshot rebuild waits on a ReentrantLock, and cached lookups load through
+// SingleFlightCache (CacheConfig) instead of inside Caffeine's map lock. Run with -Djdk.tracePinnedThreads=short
+// to see any pinning left, e.g. after adding a synchronized block around I/O.
+@Configuration
+@ConditionalOnProperty(name = "employees.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean
+    public VirtualThreadProtocolHandlerCustomizer virtualThreadProtocolHandlerCustomizer(
+            @Value("${employees.virtual-threads.carrier-parallelism:0}") int carrierParallelism,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize) {
+        // JDBC drivers that block inside synchronized (H2 1.4, MySQL Connector/J before 8.0.33) pin their carrier
+        // for the whole statement; with more carriers than pooled connections, pinned JDBC waits can never
+        // take every carrier and stall the requests that are not using the database
+        int cores = Runtime.getRuntime().availableProcessors();
+        VirtualThreads.setCarrierParallelismIfUnset(carrierParallelism > 0 ? carrierParallelism : cores + maximumPoolSize);
+        return new VirtualThreadProtocolHandlerCustomizer(VirtualThreads.newThreadPerTaskExecutor("http-virtual-"));
+    }
+
+    // not an Executor bean: that would replace Boot's applicationTaskExecutor used by async MVC requests
+    public static class VirtualThreadProtocolHandlerCustomizer implements TomcatProtocolHandlerCustomizer<ProtocolHandler>, DisposableBean {
+
+        private final ExecutorService executor;
+
+        VirtualThreadProtocolHandlerCustomizer(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void customize(ProtocolHandler protocolHandler) {
+            protocolHandler.setExecutor(executor);
+        }
+
+        // Tomcat leaves executors it did not create running
+        @Override
+        public void destroy() {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,47 +1,250 @@
 package net.vinlabs.springboot.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import net.vinlabs.springboot.dto.EmployeeBulkDeleteResult;
+import net.vinlabs.springboot.dto.EmployeeBulkResult;
+import net.vinlabs.springboot.dto.EmployeeFieldsPage;
+import net.vinlabs.springboot.dto.EmployeePage;
+import net.vinlabs.springboot.dto.EmployeePatch;
+import net.vinlabs.springboot.dto.EmployeeSnapshot;
 import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.service.AsyncEmployeeService;
+import net.vinlabs.springboot.service.EmployeeCreateCoalescer;
 import net.vinlabs.springboot.service.EmployeeService;
+import net.vinlabs.springboot.service.EmployeeSnapshotCache;
+import net.vinlabs.springboot.service.IdempotencyStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.util.DigestUtils;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+// ReactiveEmployeeController serves the same paths under the reactive profile
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private EmployeeService employeeService;
+    private AsyncEmployeeService asyncEmployeeService;
+    private EmployeeSnapshotCache snapshotCache;
+    private EmployeeCreateCoalescer createCoalescer;
+    private IdempotencyStore idempotencyStore;
+    private ObjectMapper objectMapper;
+    private int defaultPageSize;
+    private int maxPageSize;
+    private int exportFlushSize;
+    private int maxBulkSize;
+    private Duration asyncRequestTimeout;
 
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService,
+                              AsyncEmployeeService asyncEmployeeService,
+                              EmployeeSnapshotCache snapshotCache,
+                              ObjectProvider<EmployeeCreateCoalescer> createCoalescer,
+                              IdempotencyStore idempotencyStore,
+                              ObjectMapper objectMapper,
+                              @Value("${employees.page.default-size:50}") int defaultPageSize,
+                              @Value("${employees.page.max-size:500}") int maxPageSize,
+                              @Value("${employees.export.flush-size:1000}") int exportFlushSize,
+                              @Value("${employees.bulk.max-size:1000}") int maxBulkSize,
+                              @Value("${employees.async.request-timeout:10s}") Duration asyncRequestTimeout) {
         this.employeeService = employeeService;
+        this.asyncEmployeeService = asyncEmployeeService;
+        this.snapshotCache = snapshotCache;
+        // only present with employees.create.coalescing.enabled=true
+        this.createCoalescer = createCoalescer.getIfAvailable();
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.exportFlushSize = exportFlushSize;
+        this.maxBulkSize = maxBulkSize;
+        this.asyncRequestTimeout = asyncRequestTimeout;
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Employee createEmployee(@RequestBody Employee employee) {
-        return employeeService.saveEmployee(employee);
+    public Employee createEmployee(@RequestBody Employee employee,
+                                   @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return create(employee);
+        }
+        // a retry with the same key gets the first outcome back instead of inserting (or failing) again
+        List<String> fingerprint = Arrays.asList(employee.getFirstName(), employee.getLastName(), employee.getEmail());
+        if (createCoalescer != null) {
+            // the key is bound to the queued create, not to this request: after a 503 its flush may still write the
+            // row, and a retry then gets that outcome instead of inserting again
+            return createCoalescer.create(() -> idempotencyStore.executeAsync(idempotencyKey, fingerprint,
+                    () -> createCoalescer.submit(employee)));
+        }
+        return idempotencyStore.execute(idempotencyKey, fingerprint, () -> employeeService.saveEmployee(employee));
+    }
+
+    // one result per request item, in request order; duplicates and invalid items do not fail the others
+    @PostMapping("/_bulk")
+    public ResponseEntity<List<EmployeeBulkResult>> createEmployees(@RequestBody List<Employee> employees) {
+        if (employees.size() > maxBulkSize) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(employeeService.saveEmployees(employees));
     }
 
     @GetMapping
-    public List<Employee> getAllEmployees() {
-        return employeeService.getAllEmployees();
+    public ResponseEntity<List<Employee>> getAllEmployees(@RequestParam(value = "after", defaultValue = "0") long after,
+                                                          @RequestParam(value = "limit", required = false) Integer limit) {
+        return pageResponse(employeeService.getEmployees(after, pageSize(limit)));
+    }
+
+    // sparse fieldset, e.g. ?fields=id,lastName: only those columns are selected, no entity is loaded
+    @GetMapping(params = {"fields", "!ids"})
+    public ResponseEntity<List<Map<String, Object>>> getEmployeeFields(@RequestParam("fields") List<String> fields,
+                                                                       @RequestParam(value = "after", defaultValue = "0") long after,
+                                                                       @RequestParam(value = "limit", required = false) Integer limit) {
+        if (fields.isEmpty() || !Employee.SELECTABLE_FIELDS.containsAll(fields)) {
+            return ResponseEntity.badRequest().build();
+        }
+        EmployeeFieldsPage page = employeeService.getEmployeeFields(fields, after, pageSize(limit));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+        }
+        return response.body(page.getEmployees());
+    }
+
+    // several employees by id in one request, e.g. ?ids=3,1,7: looked up in parallel on the async service while the
+    // request thread goes back to the pool; unknown ids are left out, the others keep the order of ids
+    @GetMapping(params = {"ids", "!fields"})
+    public DeferredResult<ResponseEntity<List<Employee>>> getEmployeesByIds(@RequestParam("ids") List<Long> employeeIds) {
+        DeferredResult<ResponseEntity<List<Employee>>> result = new DeferredResult<>(asyncRequestTimeout.toMillis(),
+                ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+        Set<Long> ids = new LinkedHashSet<>(employeeIds);
+        if (ids.size() > maxPageSize) {
+            result.setResult(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+            return result;
+        }
+        CompletableFuture<List<Employee>> lookups = asyncEmployeeService.getEmployeesByIds(ids);
+        // nobody is waiting for the rest of the lookups once the request timed out or failed
+        result.onTimeout(() -> lookups.cancel(false));
+        result.onError(e -> lookups.cancel(false));
+        lookups.whenComplete((employees, e) -> {
+            if (lookups.isCancelled()) {
+                // cancelled above, the timeout (or error) already decides the response
+                return;
+            }
+            if (e != null) {
+                // resolved like a synchronous failure, e.g. 503 for EmployeeServiceBusyException
+                result.setErrorResult(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            } else {
+                result.setResult(ResponseEntity.ok(employees));
+            }
+        });
+        return result;
+    }
+
+    // the ids lookup returns whole employees; without this both mappings above would match, an ambiguous handler
+    @GetMapping(params = {"ids", "fields"})
+    public ResponseEntity<String> getEmployeeFieldsByIds() {
+        return ResponseEntity.badRequest().body("fields cannot be combined with ids");
     }
 
+    // all employees sharing the name, paged like the list endpoint
+    @GetMapping("/search")
+    public ResponseEntity<List<Employee>> searchEmployees(@RequestParam("firstName") String firstName,
+                                                          @RequestParam("lastName") String lastName,
+                                                          @RequestParam(value = "after", defaultValue = "0") long after,
+                                                          @RequestParam(value = "limit", required = false) Integer limit) {
+        return pageResponse(employeeService.searchEmployees(firstName, lastName, after, pageSize(limit)));
+    }
+
+    // the full list as one JSON array, written from bytes encoded once per write version;
+    // gzip clients get the pre-compressed copy, and unchanged content answers 304
+    @GetMapping(value = "/snapshot", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getEmployeeSnapshot(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        EmployeeSnapshot snapshot = snapshotCache.getSnapshot();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag("\"s-" + snapshot.getDigest() + (gzip ? "-gzip" : "") + "\"")
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzipJson());
+        }
+        return response.body(snapshot.getJson());
+    }
+
+    // newline-delimited JSON, one employee per line, written while the rows are read
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportEmployees() {
+        ObjectWriter writer = objectMapper.writerFor(Employee.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                long[] written = {0};
+                employeeService.exportEmployees(employee -> {
+                    try {
+                        writer.writeValue(generator, employee);
+                        generator.writeRaw('\n');
+                        if (++written[0] % exportFlushSize == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Spring answers 304 for a matching If-None-Match before serializing the body,
+    // and a cached employee (with its version) is checked without touching the database
     @GetMapping("{id}")
     public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId) {
         return employeeService.getEmployeeById(employeeId)
-                .map(ResponseEntity::ok)
+                .map(employee -> ResponseEntity.ok().eTag(eTag(employee)).varyBy(HttpHeaders.ACCEPT).body(employee))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -49,28 +252,129 @@ public class EmployeeController {
     public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee) {
         return employeeService.getEmployeeById(employeeId)
                 .map(savedEmployee -> {
-                    savedEmployee.setFirstName(employee.getFirstName());
-                    savedEmployee.setLastName(employee.getLastName());
-                    savedEmployee.setEmail(employee.getEmail());
+                    // savedEmployee may be the shared cached instance, so never modify it in place
+                    Employee changedEmployee = Employee.builder()
+                            .id(savedEmployee.getId())
+                            .firstName(employee.getFirstName())
+                            .lastName(employee.getLastName())
+                            .email(employee.getEmail())
+                            .version(savedEmployee.getVersion())
+                            .build();
 
-                    Employee updatedEmployee = employeeService.updateEmployee(savedEmployee);
+                    Employee updatedEmployee = employeeService.updateEmployee(changedEmployee);
 
-                    return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
+                    return ResponseEntity.ok().eTag(eTag(updatedEmployee)).varyBy(HttpHeaders.ACCEPT).body(updatedEmployee);
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // applies only the supplied fields with a single UPDATE, the row count decides between 200 and 404
+    @PatchMapping("{id}")
+    public ResponseEntity<String> patchEmployee(@PathVariable("id") long employeeId, @RequestBody EmployeePatch patch) {
+        if (patch.isEmpty()) {
+            return ResponseEntity.badRequest().body("The request does not contain any field to update");
+        }
+        if (!employeeService.patchEmployee(employeeId, patch)) {
+            return ResponseEntity.notFound().build();
+        }
+        return new ResponseEntity<String>("The employee is updated successfully", HttpStatus.OK);
+    }
+
     @DeleteMapping("{id}")
     public ResponseEntity<String> deleteEmployee(@PathVariable("id") long employeeId) {
-//        return employeeService.getEmployeeById(employeeId)
-//                .map(savedEmployee -> {
-//                    employeeService.deleteEmployeeById(savedEmployee.getId());
-//                    return new ResponseEntity<String>("The employee is deleted successfully",HttpStatus.OK);
-//                })
-//                .orElseGet(()-> ResponseEntity.notFound().build());
-
-        employeeService.deleteEmployeeById(employeeId);
+        // a single DELETE, the affected row count decides between 200 and 404
+        if (!employeeService.deleteEmployeeById(employeeId)) {
+            return ResponseEntity.notFound().build();
+        }
         return new ResponseEntity<String>("The employee is deleted successfully", HttpStatus.OK);
 
     }
+
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<EmployeeBulkDeleteResult> deleteEmployees(@RequestParam("ids") List<Long> employeeIds) {
+        Set<Long> ids = new LinkedHashSet<>(employeeIds);
+        if (ids.size() > maxBulkSize) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        int deleted = employeeService.deleteEmployeesByIds(ids);
+        return ResponseEntity.ok(new EmployeeBulkDeleteResult(ids.size(), deleted));
+    }
+
+    // the employee was changed by someone else between our read and the update
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConcurrentUpdate(ObjectOptimisticLockingFailureException e) {
+        return new ResponseEntity<String>("The employee was modified concurrently, retry the update", HttpStatus.CONFLICT);
+    }
+
+    private Employee create(Employee employee) {
+        if (createCoalescer != null) {
+            return createCoalescer.create(employee);
+        }
+        return employeeService.saveEmployee(employee);
+    }
+
+    // weak: the same version is served as JSON, Smile or CBOR, which are equivalent but not byte-identical;
+    // If-None-Match compares weakly, so 304s still work
+    static String eTag(Employee employee) {
+        return "W/\"" + employee.getId() + "-" + employee.getVersion() + "\"";
+    }
+
+    static ResponseEntity<List<Employee>> pageResponse(EmployeePage page) {
+        // the same weak ETag is served as JSON, Smile or CBOR, so shared caches must key on Accept too
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(pageETag(page)).varyBy(HttpHeaders.ACCEPT);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+        }
+        return response.body(page.getEmployees());
+    }
+
+    // a page is unchanged as long as it holds the same ids at the same versions and the same cursor
+    private static String pageETag(EmployeePage page) {
+        StringBuilder versions = new StringBuilder();
+        for (Employee employee : page.getEmployees()) {
+            versions.append(employee.getId()).append(':').append(employee.getVersion()).append(',');
+        }
+        versions.append(page.getNextCursor());
+        return "W/\"p-" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    // gzip listed with a q-value above 0, or not listed but covered by "*"; "gzip;q=0" refuses it
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                return qValue(parts) > 0;
+            }
+            if (name.equals("*")) {
+                wildcard = qValue(parts) > 0;
+            }
+        }
+        return wildcard;
+    }
+
+    private static double qValue(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
 }
@@ -0,0 +1,57 @@
+package net.vinlabs.springboot.controller;
+
+import net.vinlabs.springboot.dto.EmployeeImportStatus;
+import net.vinlabs.springboot.service.EmployeeImportService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// servlet multipart upload, not available under the reactive profile
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/employees/_import")
+public class EmployeeImportController {
+
+    private EmployeeImportService employeeImportService;
+
+    public EmployeeImportController(EmployeeImportService employeeImportService) {
+        this.employeeImportService = employeeImportService;
+    }
+
+    // the upload is spooled to disk by the multipart resolver and moved to a file the job owns,
+    // the request returns at once with the job to poll; 503 when too many imports are already queued
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<EmployeeImportStatus> startImport(@RequestParam("file") MultipartFile file) throws IOException {
+        Path csvFile = Files.createTempFile("employees-import-", ".csv");
+        EmployeeImportStatus status;
+        try {
+            file.transferTo(csvFile);
+            status = employeeImportService.startImport(csvFile);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(csvFile);
+            throw e;
+        }
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{jobId}").build(status.getId()))
+                .body(status);
+    }
+
+    @GetMapping("{jobId}")
+    public ResponseEntity<EmployeeImportStatus> getImport(@PathVariable("jobId") String jobId) {
+        return employeeImportService.getImport(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
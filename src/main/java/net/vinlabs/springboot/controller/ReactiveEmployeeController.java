@@ -0,0 +1,139 @@
+package net.vinlabs.springboot.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.service.ReactiveEmployeeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+// The CRUD and list operations of EmployeeController on WebFlux and R2DBC, with the same paths, status codes,
+// ETags and cursors, for clients that fan out many concurrent requests
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/employees")
+public class ReactiveEmployeeController {
+
+    private ReactiveEmployeeService employeeService;
+    private ObjectWriter writer;
+    private int defaultPageSize;
+    private int maxPageSize;
+    private int streamPrefetch;
+    private int exportFlushSize;
+
+    public ReactiveEmployeeController(ReactiveEmployeeService employeeService,
+                                      ObjectMapper objectMapper,
+                                      @Value("${employees.page.default-size:50}") int defaultPageSize,
+                                      @Value("${employees.page.max-size:500}") int maxPageSize,
+                                      @Value("${employees.reactive.stream-prefetch:256}") int streamPrefetch,
+                                      @Value("${employees.export.flush-size:1000}") int exportFlushSize) {
+        this.employeeService = employeeService;
+        this.writer = objectMapper.writerFor(Employee.class);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.streamPrefetch = streamPrefetch;
+        this.exportFlushSize = exportFlushSize;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Employee> createEmployee(@RequestBody Employee employee) {
+        return employeeService.saveEmployee(employee);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<Employee>>> getAllEmployees(@RequestParam(value = "after", defaultValue = "0") long after,
+                                                                @RequestParam(value = "limit", required = false) Integer limit) {
+        return employeeService.getEmployees(after, pageSize(limit)).map(EmployeeController::pageResponse);
+    }
+
+    // newline-delimited JSON, written as the rows arrive; a slow client slows down the read instead of the
+    // rows piling up in memory, at most stream-prefetch of them are requested from the driver ahead of the socket.
+    // Rows go out flush-size at a time, a Flux<Employee> would be written and flushed one row at a time
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DataBuffer> exportEmployees() {
+        return employeeService.exportEmployees()
+                .limitRate(streamPrefetch)
+                .buffer(exportFlushSize)
+                .map(this::toNdjson);
+    }
+
+    @GetMapping("{id}")
+    public Mono<ResponseEntity<Employee>> getEmployeeById(@PathVariable("id") long employeeId) {
+        return employeeService.getEmployeeById(employeeId)
+                .map(employee -> ResponseEntity.ok().eTag(EmployeeController.eTag(employee)).varyBy(HttpHeaders.ACCEPT).body(employee))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("{id}")
+    public Mono<ResponseEntity<Employee>> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee) {
+        return employeeService.getEmployeeById(employeeId)
+                .flatMap(savedEmployee -> {
+                    savedEmployee.setFirstName(employee.getFirstName());
+                    savedEmployee.setLastName(employee.getLastName());
+                    savedEmployee.setEmail(employee.getEmail());
+                    return employeeService.updateEmployee(savedEmployee);
+                })
+                .map(updatedEmployee -> ResponseEntity.ok().eTag(EmployeeController.eTag(updatedEmployee)).varyBy(HttpHeaders.ACCEPT).body(updatedEmployee))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("{id}")
+    public Mono<ResponseEntity<String>> deleteEmployee(@PathVariable("id") long employeeId) {
+        return employeeService.deleteEmployeeById(employeeId)
+                .map(deleted -> deleted
+                        ? new ResponseEntity<String>("The employee is deleted successfully", HttpStatus.OK)
+                        : ResponseEntity.<String>notFound().build());
+    }
+
+    // the employee was changed by someone else between our read and the update
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConcurrentUpdate(OptimisticLockingFailureException e) {
+        return new ResponseEntity<String>("The employee was modified concurrently, retry the update", HttpStatus.CONFLICT);
+    }
+
+    private DataBuffer toNdjson(List<Employee> employees) {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(employees.size() * 128);
+        try {
+            for (Employee employee : employees) {
+                lines.write(writer.writeValueAsBytes(employee));
+                lines.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return DefaultDataBufferFactory.sharedInstance.wrap(lines.toByteArray());
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+}
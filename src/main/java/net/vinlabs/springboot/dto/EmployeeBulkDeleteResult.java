@@ -0,0 +1,12 @@
+package net.vinlabs.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class EmployeeBulkDeleteResult {
+    // distinct ids in the request
+    private int requested;
+    private int deleted;
+}
@@ -0,0 +1,29 @@
+package net.vinlabs.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class EmployeeBulkResult {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE_EMAIL,
+        INVALID
+    }
+
+    // position of the item in the request array
+    private int index;
+    private Status status;
+    private Long id;
+    private String message;
+
+    public static EmployeeBulkResult created(int index, long id) {
+        return new EmployeeBulkResult(index, Status.CREATED, id, null);
+    }
+
+    public static EmployeeBulkResult rejected(int index, Status status, String message) {
+        return new EmployeeBulkResult(index, status, null, message);
+    }
+}
@@ -0,0 +1,17 @@
+package net.vinlabs.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+// a page of sparse employee rows, each holding only the requested fields
+@Getter
+@AllArgsConstructor
+public class EmployeeFieldsPage {
+    private List<Map<String, Object>> employees;
+
+    // id to pass as "after" for the next page, null when this is the last page
+    private Long nextCursor;
+}
@@ -0,0 +1,13 @@
+package net.vinlabs.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// a CSV record that was not imported
+@Getter
+@AllArgsConstructor
+public class EmployeeImportError {
+    // line of the file the record starts on, the header being line 1
+    private long line;
+    private String message;
+}
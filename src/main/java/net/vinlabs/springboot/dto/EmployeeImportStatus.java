@@ -0,0 +1,33 @@
+package net.vinlabs.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+// point-in-time view of an import job, as returned by GET /api/employees/_import/{jobId}
+@Getter
+@AllArgsConstructor
+public class EmployeeImportStatus {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private String id;
+    private State state;
+    private Instant startedAt;
+    private Instant finishedAt;
+    // records read so far, created + rejected
+    private long processedRows;
+    private long createdRows;
+    private long rejectedRows;
+    // the first errors only, up to employees.import.max-errors; rejectedRows has the full count
+    private List<EmployeeImportError> errors;
+    // why the job stopped early, null unless FAILED
+    private String failure;
+}
@@ -0,0 +1,16 @@
+package net.vinlabs.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.vinlabs.springboot.model.Employee;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class EmployeePage {
+    private List<Employee> employees;
+
+    // id to pass as "after" for the next page, null when this is the last page
+    private Long nextCursor;
+}
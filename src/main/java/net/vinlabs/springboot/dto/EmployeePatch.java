@@ -0,0 +1,25 @@
+package net.vinlabs.springboot.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// body of PATCH /api/employees/{id}, a null field means "leave the column as it is"
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeePatch {
+    private String firstName;
+    private String lastName;
+    private String email;
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return firstName == null && lastName == null && email == null;
+    }
+}
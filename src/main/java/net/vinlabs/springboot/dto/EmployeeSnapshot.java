@@ -0,0 +1,16 @@
+package net.vinlabs.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// the whole employee list encoded once as a JSON array, plain and gzip-compressed
+@Getter
+@AllArgsConstructor
+public class EmployeeSnapshot {
+    // write version the snapshot was built at
+    private long version;
+    // hash of the JSON bytes: the same list gives the same ETag on every instance and across restarts
+    private String digest;
+    private byte[] json;
+    private byte[] gzipJson;
+}
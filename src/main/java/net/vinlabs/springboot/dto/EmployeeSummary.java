@@ -0,0 +1,14 @@
+package net.vinlabs.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// read-only view selected with a JPQL constructor expression, never a managed entity
+@Getter
+@AllArgsConstructor
+public class EmployeeSummary {
+    private long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+}
@@ -0,0 +1,11 @@
+package net.vinlabs.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends RuntimeException {
+    public BulkheadFullException(String operation) {
+        super("Too many concurrent repository calls of type : " + operation);
+    }
+}
@@ -0,0 +1,19 @@
+package net.vinlabs.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class DuplicateEmailException extends RuntimeException {
+    public DuplicateEmailException(String email) {
+        super("The employee with the given email already exists : " + email);
+    }
+
+    public DuplicateEmailException(Throwable cause) {
+        super("An employee with one of the given emails already exists", cause);
+    }
+
+    public DuplicateEmailException(String email, Throwable cause) {
+        super("The employee with the given email already exists : " + email, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package net.vinlabs.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class EmployeeServiceBusyException extends RuntimeException {
+    public EmployeeServiceBusyException(Throwable cause) {
+        super("Too many employee service calls waiting to run", cause);
+    }
+}
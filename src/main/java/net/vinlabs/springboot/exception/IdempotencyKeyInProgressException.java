@@ -0,0 +1,11 @@
+package net.vinlabs.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    public IdempotencyKeyInProgressException(String key) {
+        super("A request with the given idempotency key is still in progress : " + key);
+    }
+}
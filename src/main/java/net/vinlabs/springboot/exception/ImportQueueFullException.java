@@ -0,0 +1,11 @@
+package net.vinlabs.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ImportQueueFullException extends RuntimeException {
+    public ImportQueueFullException(int queuedImports) {
+        super("Too many imports waiting to run : " + queuedImports);
+    }
+}
@@ -0,0 +1,38 @@
+package net.vinlabs.springboot.logging;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Records which Spring Data repository method is running, for SlowQueryLogListener.
+@Aspect
+@Component
+public class RepositoryMethodAspect {
+
+    private final Map<Method, String> names = new ConcurrentHashMap<>();
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object track(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String name = names.computeIfAbsent(method, m -> repositoryName(joinPoint.getThis()) + "." + m.getName());
+        String previous = RepositoryMethodContext.enter(name);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RepositoryMethodContext.restore(previous);
+        }
+    }
+
+    // the declared repository interface (EmployeeRepository) rather than JpaRepository or the proxy class
+    private static String repositoryName(Object proxy) {
+        Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(proxy);
+        return interfaces.length > 0 ? interfaces[0].getSimpleName() : proxy.getClass().getSimpleName();
+    }
+}
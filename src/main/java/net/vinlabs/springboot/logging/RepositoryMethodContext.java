@@ -0,0 +1,30 @@
+package net.vinlabs.springboot.logging;
+
+// The repository method running on the current thread, e.g. "EmployeeRepository.findByEmail",
+// so statements seen at the JDBC layer can be traced back to the code that issued them.
+public final class RepositoryMethodContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private RepositoryMethodContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    // returns the previous value, which the caller restores when its method returns
+    static String enter(String method) {
+        String previous = CURRENT.get();
+        CURRENT.set(method);
+        return previous;
+    }
+
+    static void restore(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package net.vinlabs.springboot.logging;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Logs a statement, with its bound parameters and calling repository method, when it ran longer than
+// the threshold or was picked by the sample rate; every other statement costs one comparison and one random draw.
+public class SlowQueryLogListener implements QueryExecutionListener {
+
+    private final DefaultQueryLogEntryCreator entryCreator = new DefaultQueryLogEntryCreator();
+
+    private Logger logger;
+    private long thresholdMillis;
+    private double sampleRate;
+
+    public SlowQueryLogListener(Logger logger, Duration threshold, double sampleRate) {
+        this.logger = logger;
+        this.thresholdMillis = threshold.toMillis();
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = execInfo.getElapsedTime();
+        if (elapsed >= thresholdMillis) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("slow query {} ms from {}: {}", elapsed, caller(), entry(execInfo, queryInfoList));
+            }
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            if (logger.isInfoEnabled()) {
+                logger.info("sampled query {} ms from {}: {}", elapsed, caller(), entry(execInfo, queryInfoList));
+            }
+        }
+    }
+
+    private String entry(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        return entryCreator.getLogEntry(execInfo, queryInfoList, false, false);
+    }
+
+    private static String caller() {
+        String method = RepositoryMethodContext.current();
+        return method == null ? "-" : method;
+    }
+}
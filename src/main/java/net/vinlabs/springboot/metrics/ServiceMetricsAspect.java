@@ -0,0 +1,51 @@
+package net.vinlabs.springboot.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+// Times every public method of the service implementations and counts the ones that throw.
+// Controllers are covered by http.server.requests and repositories by spring.data.repository.invocations.
+// Methods returning a Mono, Flux or CompletableFuture are left out, they only start the work and would time nothing;
+// the asynchronous service's calls are timed as the EmployeeService calls they run.
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    public static final String CALLS = "employees.service.calls";
+    public static final String ERRORS = "employees.service.errors";
+
+    private MeterRegistry meterRegistry;
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public !(org.reactivestreams.Publisher+ || java.util.concurrent.CompletionStage+) "
+            + "net.vinlabs.springboot.service.impl..*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String className = ClassUtils.getUserClass(joinPoint.getTarget()).getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        String exception = "none";
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            Counter.builder(ERRORS)
+                    .tags("class", className, "method", method, "exception", exception)
+                    .register(meterRegistry)
+                    .increment();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(CALLS)
+                    .tags("class", className, "method", method, "exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
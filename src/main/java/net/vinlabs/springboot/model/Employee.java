@@ -1,17 +1,28 @@
 package net.vinlabs.springboot.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Version;
+import java.util.Locale;
+import java.util.Set;
 
 @Setter
 @Getter
@@ -20,9 +31,25 @@ import javax.persistence.Table;
 @Builder
 
 @Entity
-@Table(name="employees")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Employee.CACHE_REGION)
+@Table(name="employees", indexes = {
+        @Index(name = Employee.EMAIL_INDEX, columnList = "email_normalized", unique = true),
+        @Index(name = Employee.NAME_INDEX, columnList = "first_name, last_name")
+})
+// the same row mapped for Spring Data R2DBC (reactive profile), columns follow its snake_case naming
+@org.springframework.data.relational.core.mapping.Table("employees")
 public class Employee {
+    public static final String EMAIL_INDEX = "ux_employees_email_normalized";
+    public static final String NAME_INDEX = "ix_employees_first_name_last_name";
+    // Hibernate second-level cache regions, sized in application.conf
+    public static final String CACHE_REGION = "employee";
+    public static final String QUERY_CACHE_REGION = "employee-queries";
+    // attributes a client may ask for with ?fields=, in their JSON names
+    public static final Set<String> SELECTABLE_FIELDS = Set.of("id", "firstName", "lastName", "email", "version");
+
     @Id
+    @org.springframework.data.annotation.Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
 
@@ -34,4 +61,24 @@ public class Employee {
 
     @Column(nullable = true)
     private String email;
+
+    // bumped on every update, drives optimistic locking and the ETags of the API
+    @Version
+    private long version;
+
+    // lower-cased, trimmed copy of email that carries the unique index; R2DBC runs no entity callbacks, the
+    // reactive service sets it itself
+    @JsonIgnore
+    @Column(name = "email_normalized")
+    private String emailNormalized;
+
+    @PrePersist
+    @PreUpdate
+    void normalizeEmail() {
+        emailNormalized = normalizeEmail(email);
+    }
+
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
 }
@@ -1,20 +1,62 @@
 package net.vinlabs.springboot.repository;
 
 
+import net.vinlabs.springboot.dto.EmployeeSummary;
 import net.vinlabs.springboot.model.Employee;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
+// the JPQL lookups go through Hibernate's query cache; any write to the employees table invalidates their results.
+// The native SQL variants are left uncached because Hibernate cannot tell which tables their results depend on.
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = Employee.QUERY_CACHE_REGION)
+    })
     Optional<Employee> findByEmail(String email);
 
+    @Query("Select e.emailNormalized from Employee e where e.emailNormalized in :emails")
+    Set<String> findExistingNormalizedEmails(@Param("emails") Collection<String> normalizedEmails);
+
+    // keyset page: seeks on the primary key index instead of skipping rows with OFFSET
+    List<Employee> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    // every namesake, paged by id; served by the (first_name, last_name) index, which carries the id as its tail
+    List<Employee> findByFirstNameAndLastNameAndIdGreaterThanOrderByIdAsc(String firstName, String lastName, long id,
+                                                                         Pageable pageable);
+
+    // unlike deleteById this does not load the entity first, the count tells whether it existed
+    @Modifying
+    @Transactional
+    @Query("delete from Employee e where e.id = :id")
+    int deleteByIdReturningCount(@Param("id") long id);
+
     //where Employee is not a table its the class!
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = Employee.QUERY_CACHE_REGION)
+    })
     @Query("Select e from Employee e where e.firstName = ?1 and e.lastName = ?2")
     Employee findByJPQL(String firstName, String lastName);
 
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = Employee.QUERY_CACHE_REGION)
+    })
     @Query("Select e from Employee e where e.firstName =:firstName and e.lastName =:lastName")
     Employee findByJPQLNamedParams(@Param("firstName") String firstName, @Param("lastName") String lastName);
 
@@ -25,4 +67,13 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     @Query(value="Select * from employees e where e.first_name =:firstName and e.last_name =:lastName", nativeQuery = true)
     Employee findByNativeSQLLNamedParams(@Param("firstName") String firstName, @Param("lastName") String lastName);
 
+    // same lookup as findByJPQLNamedParams but skips entity hydration and the persistence context
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = Employee.QUERY_CACHE_REGION)
+    })
+    @Query("Select new net.vinlabs.springboot.dto.EmployeeSummary(e.id, e.firstName, e.lastName, e.email) " +
+            "from Employee e where e.firstName = :firstName and e.lastName = :lastName")
+    EmployeeSummary findSummaryByName(@Param("firstName") String firstName, @Param("lastName") String lastName);
+
 }
@@ -0,0 +1,26 @@
+package net.vinlabs.springboot.repository;
+
+import net.vinlabs.springboot.dto.EmployeePatch;
+import net.vinlabs.springboot.model.Employee;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public interface EmployeeRepositoryCustom {
+    // walks the whole table in id order over a forward-only cursor, returns the number of rows visited
+    long scrollAll(Consumer<Employee> consumer);
+
+    // keyset page of scalar columns only (id always included), one ordered map per row; nothing enters the persistence context
+    List<Map<String, Object>> findFieldsByIdGreaterThan(Collection<String> fields, long id, int limit);
+
+    // inserts in JDBC batches and sets the generated id on every employee
+    void batchInsert(List<Employee> employees);
+
+    // one UPDATE touching only the non-null fields of the patch, returns the affected row count
+    int updateFields(long id, EmployeePatch patch);
+
+    // deletes with a few IN-list statements of bounded size, returns the number of rows removed
+    int deleteByIds(Collection<Long> ids);
+}
@@ -0,0 +1,207 @@
+package net.vinlabs.springboot.repository;
+
+import net.vinlabs.springboot.dto.EmployeePatch;
+import net.vinlabs.springboot.model.Employee;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+    private static final String INSERT_SQL = "insert into employees (first_name, last_name, email, email_normalized, version) values (?, ?, ?, ?, 0)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private JdbcTemplate jdbcTemplate;
+    private int fetchSize;
+    private int batchSize;
+    private int deleteChunkSize;
+
+    public EmployeeRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                  @Value("${employees.export.fetch-size:500}") int fetchSize,
+                                  @Value("${employees.bulk.batch-size:100}") int batchSize,
+                                  @Value("${employees.bulk.delete-chunk-size:500}") int deleteChunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+        this.batchSize = batchSize;
+        this.deleteChunkSize = deleteChunkSize;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long scrollAll(Consumer<Employee> consumer) {
+        Session session = entityManager.unwrap(Session.class);
+        long count = 0;
+        try (ScrollableResults results = session.createQuery("select e from Employee e order by e.id", Employee.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                Employee employee = (Employee) results.get(0);
+                consumer.accept(employee);
+                // detach as we go so the persistence context does not grow with the table
+                session.detach(employee);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findFieldsByIdGreaterThan(Collection<String> fields, long id, int limit) {
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields) {
+            if (!Employee.SELECTABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown employee field: " + field);
+            }
+            selected.add(field);
+        }
+
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Employee> employee = query.from(Employee.class);
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String field : selected) {
+            selections.add(employee.get(field).alias(field));
+        }
+        query.multiselect(selections)
+                .where(builder.greaterThan(employee.get("id"), id))
+                .orderBy(builder.asc(employee.get("id")));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).setMaxResults(limit).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : selected) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // Employee ids are IDENTITY columns, which Hibernate never batches, so the rows are sent
+    // as plain JDBC batches on the transaction's connection and the keys are read back per batch
+    @Override
+    @Transactional
+    public void batchInsert(List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (int from = 0; from < employees.size(); from += batchSize) {
+                    List<Employee> batch = employees.subList(from, Math.min(from + batchSize, employees.size()));
+                    for (Employee employee : batch) {
+                        statement.setString(1, employee.getFirstName());
+                        statement.setString(2, employee.getLastName());
+                        statement.setString(3, employee.getEmail());
+                        statement.setString(4, Employee.normalizeEmail(employee.getEmail()));
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        for (Employee employee : batch) {
+                            if (!keys.next()) {
+                                throw new IllegalStateException("The driver returned fewer generated keys than inserted rows");
+                            }
+                            employee.setId(keys.getLong(1));
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+        evictQueryCache();
+    }
+
+    @Override
+    @Transactional
+    public int updateFields(long id, EmployeePatch patch) {
+        List<String> assignments = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (patch.getFirstName() != null) {
+            assignments.add("e.firstName = :firstName");
+            parameters.put("firstName", patch.getFirstName());
+        }
+        if (patch.getLastName() != null) {
+            assignments.add("e.lastName = :lastName");
+            parameters.put("lastName", patch.getLastName());
+        }
+        if (patch.getEmail() != null) {
+            // bulk updates skip entity callbacks, so keep the normalized copy in step here
+            assignments.add("e.email = :email");
+            assignments.add("e.emailNormalized = :emailNormalized");
+            parameters.put("email", patch.getEmail());
+            parameters.put("emailNormalized", Employee.normalizeEmail(patch.getEmail()));
+        }
+        if (assignments.isEmpty()) {
+            throw new IllegalArgumentException("The patch does not contain any field to update");
+        }
+
+        assignments.add("e.version = e.version + 1");
+        Query query = entityManager.createQuery("update Employee e set " + String.join(", ", assignments) + " where e.id = :id");
+        parameters.forEach(query::setParameter);
+        query.setParameter("id", id);
+        return query.executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public int deleteByIds(Collection<Long> ids) {
+        List<Long> idList = new ArrayList<>(ids);
+        int deleted = 0;
+        for (int from = 0; from < idList.size(); from += deleteChunkSize) {
+            deleted += entityManager.createQuery("delete from Employee e where e.id in :ids")
+                    .setParameter("ids", idList.subList(from, Math.min(from + deleteChunkSize, idList.size())))
+                    .executeUpdate();
+        }
+        return deleted;
+    }
+
+    // rows written over plain JDBC are invisible to Hibernate's update timestamps, so drop the cached query
+    // results now and again once the transaction commits, before which other sessions could re-cache old results
+    private void evictQueryCache() {
+        org.hibernate.Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        cache.evictQueryRegion(Employee.QUERY_CACHE_REGION);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evictQueryRegion(Employee.QUERY_CACHE_REGION);
+                }
+            });
+        }
+    }
+}
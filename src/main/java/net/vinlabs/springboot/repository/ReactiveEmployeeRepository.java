@@ -0,0 +1,78 @@
+package net.vinlabs.springboot.repository;
+
+import net.vinlabs.springboot.model.Employee;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.data.relational.core.query.Update;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
+// R2DBC counterpart of EmployeeRepository for the reactive profile, nothing here blocks the calling thread.
+// A plain class rather than a Spring Data interface: with Employee also being a JPA entity, the JPA repository
+// scan would claim a reactive repository interface and fail.
+@Repository
+@Profile("reactive")
+public class ReactiveEmployeeRepository {
+
+    private static final Sort BY_ID = Sort.by(Sort.Order.asc("id"));
+
+    private R2dbcEntityTemplate template;
+
+    public ReactiveEmployeeRepository(R2dbcEntityTemplate template) {
+        this.template = template;
+    }
+
+    public Mono<Employee> findById(long id) {
+        return template.selectOne(query(where("id").is(id)), Employee.class);
+    }
+
+    // keyset page, the same seek on the primary key as EmployeeRepository
+    public Flux<Employee> findByIdGreaterThanOrderByIdAsc(long id, int limit) {
+        return template.select(query(where("id").greaterThan(id)).sort(BY_ID).limit(limit), Employee.class);
+    }
+
+    // rows are emitted as the subscriber requests them
+    public Flux<Employee> findAllOrderByIdAsc() {
+        return template.select(Query.empty().sort(BY_ID), Employee.class);
+    }
+
+    public Mono<Employee> insert(Employee employee) {
+        return template.insert(employee);
+    }
+
+    // conditioned on the version like a JPA update, OptimisticLockingFailureException when no row matched
+    // (Spring Data JPA refuses Spring Data's own @Version on an entity, so the version is handled here)
+    public Mono<Employee> update(Employee employee) {
+        Update changes = Update.update("firstName", employee.getFirstName())
+                .set("lastName", employee.getLastName())
+                .set("email", employee.getEmail())
+                .set("emailNormalized", employee.getEmailNormalized())
+                .set("version", employee.getVersion() + 1);
+        return template.update(Employee.class)
+                .matching(query(where("id").is(employee.getId()).and("version").is(employee.getVersion())))
+                .apply(changes)
+                .flatMap(updatedRows -> {
+                    if (updatedRows == 0) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "Employee " + employee.getId() + " was changed or deleted since version " + employee.getVersion()));
+                    }
+                    employee.setVersion(employee.getVersion() + 1);
+                    return Mono.just(employee);
+                });
+    }
+
+    public Mono<Integer> deleteByIdReturningCount(long id) {
+        return template.delete(query(where("id").is(id)), Employee.class);
+    }
+
+    public Mono<Integer> deleteAll() {
+        return template.delete(Employee.class).all();
+    }
+}
@@ -0,0 +1,31 @@
+package net.vinlabs.springboot.service;
+
+import net.vinlabs.springboot.dto.EmployeeBulkResult;
+import net.vinlabs.springboot.dto.EmployeeFieldsPage;
+import net.vinlabs.springboot.dto.EmployeePage;
+import net.vinlabs.springboot.dto.EmployeePatch;
+import net.vinlabs.springboot.model.Employee;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// EmployeeService with results delivered later, so a caller can have several calls in flight at once.
+// Futures complete on the service's own threads, dependent stages without an executor run there too.
+public interface AsyncEmployeeService {
+    CompletableFuture<Employee> saveEmployee(Employee employee);
+    CompletableFuture<List<EmployeeBulkResult>> saveEmployees(List<Employee> employees);
+    CompletableFuture<List<Employee>> getAllEmployees();
+    CompletableFuture<EmployeePage> getEmployees(long after, int limit);
+    CompletableFuture<EmployeeFieldsPage> getEmployeeFields(Collection<String> fields, long after, int limit);
+    CompletableFuture<EmployeePage> searchEmployees(String firstName, String lastName, long after, int limit);
+    CompletableFuture<Optional<Employee>> getEmployeeById(long id);
+    // the lookups run in parallel; unknown ids are left out, the others keep the order of ids.
+    // Cancelling the future stops the lookups not done yet
+    CompletableFuture<List<Employee>> getEmployeesByIds(Collection<Long> ids);
+    CompletableFuture<Employee> updateEmployee(Employee employee);
+    CompletableFuture<Boolean> patchEmployee(long id, EmployeePatch patch);
+    CompletableFuture<Boolean> deleteEmployeeById(long id);
+    CompletableFuture<Integer> deleteEmployeesByIds(Collection<Long> ids);
+}
@@ -0,0 +1,206 @@
+package net.vinlabs.springboot.service;
+
+import net.vinlabs.springboot.config.CacheConfig;
+import net.vinlabs.springboot.dto.EmployeeBulkResult;
+import net.vinlabs.springboot.exception.DuplicateEmailException;
+import net.vinlabs.springboot.exception.EmployeeServiceBusyException;
+import net.vinlabs.springboot.exception.InvalidEmployeeException;
+import net.vinlabs.springboot.model.Employee;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Optional create path for bursts of single-row POSTs: creates are queued and written in micro-batches through
+// insertEmployees, one transaction and one JDBC batch per flush instead of one per request. A flush starts when
+// max-batch-size creates are waiting or max-delay after the first one arrived, whichever comes first.
+// Only the created ids are evicted from the employees cache, a flush every few ms must not empty it.
+@Component
+@ConditionalOnProperty(name = "employees.create.coalescing.enabled", havingValue = "true")
+public class EmployeeCreateCoalescer implements DisposableBean {
+
+    private EmployeeService employeeService;
+    private Cache employeesCache;
+    private int maxBatchSize;
+    private long maxDelayNanos;
+    private long maxWaitNanos;
+    private BlockingQueue<PendingCreate> queue;
+    private ExecutorService flushers;
+
+    private volatile boolean stopped;
+
+    public EmployeeCreateCoalescer(EmployeeService employeeService,
+                                   CacheManager cacheManager,
+                                   @Value("${employees.create.coalescing.max-batch-size:100}") int maxBatchSize,
+                                   @Value("${employees.create.coalescing.max-delay:5ms}") Duration maxDelay,
+                                   @Value("${employees.create.coalescing.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${employees.create.coalescing.flush-threads:2}") int flushThreads,
+                                   @Value("${employees.create.coalescing.max-wait:10s}") Duration maxWait) {
+        this.employeeService = employeeService;
+        this.employeesCache = cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.maxWaitNanos = maxWait.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        // not a bean: an Executor bean would replace Boot's applicationTaskExecutor used by async MVC requests
+        this.flushers = Executors.newFixedThreadPool(flushThreads, new CustomizableThreadFactory("employee-create-"));
+        for (int i = 0; i < flushThreads; i++) {
+            flushers.execute(this::flushLoop);
+        }
+    }
+
+    // completes with the saved employee (id and version set), or with the same exceptions saveEmployee throws
+    public CompletableFuture<Employee> submit(Employee employee) {
+        PendingCreate pending = new PendingCreate(employee);
+        if (stopped) {
+            pending.future.completeExceptionally(new IllegalStateException("Employee create coalescer is stopped"));
+            return pending.future;
+        }
+        try {
+            // a full queue pushes back on the callers instead of growing without bound, for at most max-wait
+            if (!queue.offer(pending, maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                pending.future.completeExceptionally(new EmployeeServiceBusyException(new TimeoutException("No free slot in the create queue")));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.future.completeExceptionally(e);
+        }
+        return pending.future;
+    }
+
+    // blocking variant for request threads, rethrows the per-item error as is; after max-wait the caller gets
+    // EmployeeServiceBusyException (503) while the create itself may still be written by its flush
+    public Employee create(Employee employee) {
+        return create(() -> submit(employee));
+    }
+
+    // as create(Employee) for a submit made by the caller, e.g. through IdempotencyStore.executeAsync;
+    // max-wait covers the submit too
+    public Employee create(Supplier<CompletableFuture<Employee>> submission) {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        try {
+            return submission.get().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new EmployeeServiceBusyException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        stopped = true;
+        flushers.shutdownNow();
+        List<PendingCreate> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(p -> p.future.completeExceptionally(new IllegalStateException("Employee create coalescer is stopped")));
+    }
+
+    private void flushLoop() {
+        List<PendingCreate> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!stopped) {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    PendingCreate next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            batch.forEach(p -> p.future.completeExceptionally(new IllegalStateException("Employee create coalescer is stopped")));
+        }
+    }
+
+    // whatever goes wrong, Errors included, fails the callers of this batch and leaves the flusher running
+    private void flush(List<PendingCreate> batch) {
+        List<Employee> employees = new ArrayList<>(batch.size());
+        batch.forEach(p -> employees.add(p.employee));
+        try {
+            List<EmployeeBulkResult> results = save(employees);
+            evictCreated(results);
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i), results.get(i));
+            }
+        } catch (Throwable e) {
+            // no-op for the callers already completed
+            batch.forEach(p -> p.future.completeExceptionally(e));
+        }
+    }
+
+    private List<EmployeeBulkResult> save(List<Employee> employees) {
+        try {
+            return employeeService.insertEmployees(employees);
+        } catch (DuplicateEmailException e) {
+            // an email was taken by another writer after the lookup and the batch was rolled back;
+            // once more, and the lookup now rejects only that item
+            return employeeService.insertEmployees(employees);
+        }
+    }
+
+    // after the commit, so a lookup racing the flush cannot cache the id as missing again
+    private void evictCreated(List<EmployeeBulkResult> results) {
+        if (employeesCache == null) {
+            return;
+        }
+        for (EmployeeBulkResult result : results) {
+            if (result.getStatus() == EmployeeBulkResult.Status.CREATED) {
+                employeesCache.evict(result.getId());
+            }
+        }
+    }
+
+    private void complete(PendingCreate pending, EmployeeBulkResult result) {
+        switch (result.getStatus()) {
+            case CREATED:
+                pending.future.complete(pending.employee);
+                break;
+            case DUPLICATE_EMAIL:
+                pending.future.completeExceptionally(new DuplicateEmailException(pending.employee.getEmail()));
+                break;
+            default:
+                pending.future.completeExceptionally(new InvalidEmployeeException(result.getMessage()));
+        }
+    }
+
+    private static final class PendingCreate {
+
+        private final Employee employee;
+        private final CompletableFuture<Employee> future = new CompletableFuture<>();
+
+        private PendingCreate(Employee employee) {
+            this.employee = employee;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package net.vinlabs.springboot.service;
+
+import net.vinlabs.springboot.dto.EmployeeImportStatus;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+public interface EmployeeImportService {
+    // queues the import of a CSV file (header firstName,lastName,email); the job owns the file and deletes it when done.
+    // With the queue full it throws ImportQueueFullException and the file stays with the caller
+    EmployeeImportStatus startImport(Path csvFile);
+    Optional<EmployeeImportStatus> getImport(String jobId);
+}
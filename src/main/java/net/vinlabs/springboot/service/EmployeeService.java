@@ -1,14 +1,29 @@
 package net.vinlabs.springboot.service;
 
+import net.vinlabs.springboot.dto.EmployeeBulkResult;
+import net.vinlabs.springboot.dto.EmployeeFieldsPage;
+import net.vinlabs.springboot.dto.EmployeePage;
+import net.vinlabs.springboot.dto.EmployeePatch;
 import net.vinlabs.springboot.model.Employee;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
     Employee saveEmployee(Employee employee);
+    List<EmployeeBulkResult> saveEmployees(List<Employee> employees);
+    // saveEmployees without clearing the employees cache; the caller evicts the ids it created once this returns
+    List<EmployeeBulkResult> insertEmployees(List<Employee> employees);
     List<Employee> getAllEmployees();
+    EmployeePage getEmployees(long after, int limit);
+    EmployeeFieldsPage getEmployeeFields(Collection<String> fields, long after, int limit);
+    EmployeePage searchEmployees(String firstName, String lastName, long after, int limit);
+    long exportEmployees(Consumer<Employee> consumer);
     Optional<Employee> getEmployeeById(long id);
     Employee updateEmployee(Employee employee);
-    void deleteEmployeeById(long id);
+    boolean patchEmployee(long id, EmployeePatch patch);
+    boolean deleteEmployeeById(long id);
+    int deleteEmployeesByIds(Collection<Long> ids);
 }
@@ -0,0 +1,93 @@
+package net.vinlabs.springboot.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import net.vinlabs.springboot.dto.EmployeeSnapshot;
+import net.vinlabs.springboot.model.Employee;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+// Holds the full employee list already encoded, rebuilt on the first read after a write.
+// Readers between writes share the same bytes and never touch the database or Jackson.
+@Component
+public class EmployeeSnapshotCache {
+
+    private final AtomicLong writeVersion = new AtomicLong();
+    // not synchronized: a virtual thread waiting for the rebuild parks on the lock instead of pinning its carrier
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private EmployeeService employeeService;
+    private ObjectWriter writer;
+
+    private volatile EmployeeSnapshot snapshot;
+
+    public EmployeeSnapshotCache(EmployeeService employeeService, ObjectMapper objectMapper) {
+        this.employeeService = employeeService;
+        this.writer = objectMapper.writerFor(Employee.class);
+    }
+
+    // bumped after commit, so a snapshot built while the write was in flight is never kept as current
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeesChanged(EmployeesChangedEvent event) {
+        writeVersion.incrementAndGet();
+    }
+
+    public long getWriteVersion() {
+        return writeVersion.get();
+    }
+
+    public EmployeeSnapshot getSnapshot() {
+        EmployeeSnapshot current = snapshot;
+        if (current != null && current.getVersion() == writeVersion.get()) {
+            return current;
+        }
+        rebuildLock.lock();
+        try {
+            // one rebuild per version, concurrent readers wait for it instead of all encoding the list
+            current = snapshot;
+            long version = writeVersion.get();
+            if (current == null || current.getVersion() != version) {
+                current = build(version);
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private EmployeeSnapshot build(long version) {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        try (JsonGenerator generator = writer.getFactory().createGenerator(json)) {
+            generator.writeStartArray();
+            employeeService.exportEmployees(employee -> {
+                try {
+                    writer.writeValue(generator, employee);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        byte[] plain = json.toByteArray();
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream(plain.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(plain);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new EmployeeSnapshot(version, DigestUtils.md5DigestAsHex(plain), plain, gzip.toByteArray());
+    }
+}
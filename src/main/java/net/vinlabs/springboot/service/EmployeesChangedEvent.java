@@ -0,0 +1,5 @@
+package net.vinlabs.springboot.service;
+
+// published by every write that changed at least one employee row
+public class EmployeesChangedEvent {
+}
@@ -0,0 +1,137 @@
+package net.vinlabs.springboot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.vinlabs.springboot.exception.IdempotencyKeyInProgressException;
+import net.vinlabs.springboot.exception.IdempotencyKeyMismatchException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Outcomes of requests sent with an Idempotency-Key, kept in memory for a while so a client retry is answered
+// without running the request again. The first request with a key runs it; concurrent ones with the same key
+// wait for its outcome. Results and client errors (4xx) are replayed, anything else is dropped so a retry runs again.
+// max-entries bounds the finished outcomes only: an entry weighs nothing while its request is running, so size
+// eviction can never drop a key in progress and let a duplicate through.
+@Component
+public class IdempotencyStore {
+
+    private Cache<String, Entry> entries;
+    private long waitTimeoutNanos;
+
+    public IdempotencyStore(@Value("${employees.idempotency.max-entries:10000}") long maxEntries,
+                            @Value("${employees.idempotency.ttl:1h}") Duration ttl,
+                            @Value("${employees.idempotency.wait-timeout:30s}") Duration waitTimeout) {
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxEntries)
+                .weigher((String key, Entry entry) -> entry.outcome.isDone() ? 1 : 0)
+                .expireAfterWrite(ttl)
+                // evictions run on the writing thread, the bound holds once execute returns
+                .executor(Runnable::run)
+                .build();
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+    }
+
+    // the fingerprint identifies the request body, reusing a key for a different request is rejected
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Object fingerprint, Supplier<T> action) {
+        Entry entry = new Entry(fingerprint);
+        Entry existing = entries.asMap().putIfAbsent(key, entry);
+        if (existing != null) {
+            if (!Objects.equals(existing.fingerprint, fingerprint)) {
+                throw new IdempotencyKeyMismatchException(key);
+            }
+            return (T) await(key, existing);
+        }
+
+        T result;
+        try {
+            result = action.get();
+        } catch (Throwable e) {
+            // Errors included: a key left without an outcome would answer every retry with 409 until the TTL
+            settle(key, entry, null, e);
+            throw e;
+        }
+        settle(key, entry, result, null);
+        return result;
+    }
+
+    // for actions that finish after they return, like a queued create: the key stays bound to the returned future
+    // until it completes, even when the caller stops waiting for it, and a retry gets that outcome
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(String key, Object fingerprint, Supplier<CompletableFuture<T>> action) {
+        Entry entry = new Entry(fingerprint);
+        Entry existing = entries.asMap().putIfAbsent(key, entry);
+        if (existing != null) {
+            if (!Objects.equals(existing.fingerprint, fingerprint)) {
+                throw new IdempotencyKeyMismatchException(key);
+            }
+            return (CompletableFuture<T>) existing.outcome.copy();
+        }
+
+        CompletableFuture<T> result;
+        try {
+            result = action.get();
+        } catch (Throwable e) {
+            settle(key, entry, null, e);
+            throw e;
+        }
+        result.whenComplete((value, e) -> settle(key, entry, value, e));
+        return (CompletableFuture<T>) entry.outcome.copy();
+    }
+
+    private void settle(String key, Entry entry, Object result, Throwable e) {
+        if (e == null) {
+            entry.outcome.complete(result);
+        } else {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (!isClientError(cause)) {
+                entries.asMap().remove(key, entry);
+            }
+            entry.outcome.completeExceptionally(cause);
+        }
+        // weighed again now that it is done, from here on it counts against max-entries
+        entries.asMap().replace(key, entry, entry);
+    }
+
+    private Object await(String key, Entry entry) {
+        try {
+            return entry.outcome.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(key);
+        }
+    }
+
+    private static boolean isClientError(Throwable e) {
+        ResponseStatus status = AnnotatedElementUtils.findMergedAnnotation(e.getClass(), ResponseStatus.class);
+        return status != null && status.code().is4xxClientError();
+    }
+
+    private static final class Entry {
+
+        private final Object fingerprint;
+        private final CompletableFuture<Object> outcome = new CompletableFuture<>();
+
+        private Entry(Object fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
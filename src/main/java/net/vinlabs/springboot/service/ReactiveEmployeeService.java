@@ -0,0 +1,15 @@
+package net.vinlabs.springboot.service;
+
+import net.vinlabs.springboot.dto.EmployeePage;
+import net.vinlabs.springboot.model.Employee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveEmployeeService {
+    Mono<Employee> saveEmployee(Employee employee);
+    Mono<EmployeePage> getEmployees(long after, int limit);
+    Flux<Employee> exportEmployees();
+    Mono<Employee> getEmployeeById(long id);
+    Mono<Employee> updateEmployee(Employee employee);
+    Mono<Boolean> deleteEmployeeById(long id);
+}
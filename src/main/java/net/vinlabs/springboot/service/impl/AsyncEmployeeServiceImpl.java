@@ -0,0 +1,164 @@
+package net.vinlabs.springboot.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import net.vinlabs.springboot.dto.EmployeeBulkResult;
+import net.vinlabs.springboot.dto.EmployeeFieldsPage;
+import net.vinlabs.springboot.dto.EmployeePage;
+import net.vinlabs.springboot.dto.EmployeePatch;
+import net.vinlabs.springboot.exception.EmployeeServiceBusyException;
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.service.AsyncEmployeeService;
+import net.vinlabs.springboot.service.EmployeeService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Runs EmployeeService calls (with their caching, events and metrics) on a fixed pool sized to the connection pool:
+// more threads would only wait for connections. Calls beyond the bounded queue fail at once with
+// EmployeeServiceBusyException. The pool is reported as executor.* meters tagged name=employees.async.
+@Service
+public class AsyncEmployeeServiceImpl implements AsyncEmployeeService, DisposableBean {
+
+    public static final String EXECUTOR_NAME = "employees.async";
+
+    private EmployeeService employeeService;
+    private ExecutorService executor;
+    private int lookupsPerRequest;
+
+    public AsyncEmployeeServiceImpl(EmployeeService employeeService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${employees.async.threads:${spring.datasource.hikari.maximum-pool-size:10}}") int threads,
+                                    @Value("${employees.async.queue-capacity:5000}") int queueCapacity,
+                                    @Value("${employees.async.lookups-per-request:4}") int lookupsPerRequest) {
+        this.employeeService = employeeService;
+        this.lookupsPerRequest = lookupsPerRequest;
+        // not a bean: an Executor bean would replace Boot's applicationTaskExecutor used by async MVC requests
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("employee-async-"));
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, EXECUTOR_NAME, Tags.empty());
+    }
+
+    @Override
+    public CompletableFuture<Employee> saveEmployee(Employee employee) {
+        return supply(() -> employeeService.saveEmployee(employee));
+    }
+
+    @Override
+    public CompletableFuture<List<EmployeeBulkResult>> saveEmployees(List<Employee> employees) {
+        return supply(() -> employeeService.saveEmployees(employees));
+    }
+
+    @Override
+    public CompletableFuture<List<Employee>> getAllEmployees() {
+        return supply(() -> employeeService.getAllEmployees());
+    }
+
+    @Override
+    public CompletableFuture<EmployeePage> getEmployees(long after, int limit) {
+        return supply(() -> employeeService.getEmployees(after, limit));
+    }
+
+    @Override
+    public CompletableFuture<EmployeeFieldsPage> getEmployeeFields(Collection<String> fields, long after, int limit) {
+        return supply(() -> employeeService.getEmployeeFields(fields, after, limit));
+    }
+
+    @Override
+    public CompletableFuture<EmployeePage> searchEmployees(String firstName, String lastName, long after, int limit) {
+        return supply(() -> employeeService.searchEmployees(firstName, lastName, after, limit));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Employee>> getEmployeeById(long id) {
+        return supply(() -> employeeService.getEmployeeById(id));
+    }
+
+    // cached point lookups rather than an IN query, so ids served from the cache never wait on the database. The ids
+    // are split into at most lookups-per-request tasks, one request cannot take the whole pool and queue. The first
+    // failure, or cancelling the returned future, cancels the tasks still queued and stops those running at their next id
+    @Override
+    public CompletableFuture<List<Employee>> getEmployeesByIds(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        int chunkSize = Math.max(1, (distinctIds.size() + lookupsPerRequest - 1) / lookupsPerRequest);
+        CompletableFuture<List<Employee>> result = new CompletableFuture<>();
+        List<CompletableFuture<List<Employee>>> lookups = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size() && !result.isDone(); from += chunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+            CompletableFuture<List<Employee>> lookup = supply(() -> lookUp(chunk, result));
+            lookup.whenComplete((employees, e) -> {
+                if (e != null) {
+                    result.completeExceptionally(e);
+                }
+            });
+            lookups.add(lookup);
+        }
+        CompletableFuture.allOf(lookups.toArray(new CompletableFuture<?>[0]))
+                .thenAccept(done -> result.complete(lookups.stream()
+                        .flatMap(lookup -> lookup.join().stream())
+                        .collect(Collectors.toList())));
+        // a cancelled CompletableFuture that is still queued skips its supplier when it is taken off the queue
+        result.whenComplete((employees, e) -> lookups.forEach(lookup -> lookup.cancel(false)));
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Employee> updateEmployee(Employee employee) {
+        return supply(() -> employeeService.updateEmployee(employee));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> patchEmployee(long id, EmployeePatch patch) {
+        return supply(() -> employeeService.patchEmployee(id, patch));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteEmployeeById(long id) {
+        return supply(() -> employeeService.deleteEmployeeById(id));
+    }
+
+    @Override
+    public CompletableFuture<Integer> deleteEmployeesByIds(Collection<Long> ids) {
+        return supply(() -> employeeService.deleteEmployeesByIds(ids));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private List<Employee> lookUp(List<Long> ids, CompletableFuture<?> result) {
+        List<Employee> employees = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (result.isDone()) {
+                throw new CancellationException();
+            }
+            employeeService.getEmployeeById(id).ifPresent(employees::add);
+        }
+        return employees;
+    }
+
+    private <T> CompletableFuture<T> supply(Supplier<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new EmployeeServiceBusyException(e));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package net.vinlabs.springboot.service.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Minimal RFC 4180 reader: comma separated, fields optionally in double quotes with "" as an escaped quote,
+// quoted fields may span lines. Reads one record at a time, so only the current record is ever in memory.
+class CsvRecordReader {
+
+    private final char[] buffer = new char[8192];
+
+    private Reader reader;
+    private int position;
+    private int limit;
+    private long line = 1;
+    private long recordLine;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    // the next non-blank record, or null at the end of the input
+    List<String> read() throws IOException {
+        while (true) {
+            recordLine = line;
+            int c = next();
+            if (c == -1) {
+                return null;
+            }
+            if (c == '\r' || c == '\n') {
+                skipLineBreak(c);
+                continue;
+            }
+            return readRecord(c);
+        }
+    }
+
+    // line the record returned by the last read() started on
+    long getRecordLine() {
+        return recordLine;
+    }
+
+    private List<String> readRecord(int c) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStart = true;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field in the record starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    int following = next();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n' || (c == '\r' && peek() != '\n')) {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                fields.add(field.toString());
+                if (c != -1) {
+                    skipLineBreak(c);
+                }
+                return fields;
+            } else {
+                field.append((char) c);
+                fieldStart = false;
+            }
+            c = next();
+        }
+    }
+
+    private void skipLineBreak(int c) throws IOException {
+        if (c == '\r' && peek() == '\n') {
+            position++;
+        }
+        line++;
+    }
+
+    private int next() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        limit = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,246 @@
+package net.vinlabs.springboot.service.impl;
+
+import net.vinlabs.springboot.dto.EmployeeBulkResult;
+import net.vinlabs.springboot.dto.EmployeeImportError;
+import net.vinlabs.springboot.dto.EmployeeImportStatus;
+import net.vinlabs.springboot.exception.DuplicateEmailException;
+import net.vinlabs.springboot.exception.ImportQueueFullException;
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.service.EmployeeImportService;
+import net.vinlabs.springboot.service.EmployeeService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Imports run on their own small pool, one chunk of records at a time: each chunk goes through
+// saveEmployees, i.e. one set-based email lookup and JDBC batch inserts in a single transaction.
+// Every queued job holds its spooled upload on disk, so at most queue-capacity of them wait; beyond that the
+// import is refused with ImportQueueFullException.
+@Service
+public class EmployeeImportServiceImpl implements EmployeeImportService, DisposableBean {
+
+    private final Map<String, ImportJob> jobs = new LinkedHashMap<>();
+
+    private EmployeeService employeeService;
+    private int chunkSize;
+    private int maxErrors;
+    private int retainedJobs;
+    private int queueCapacity;
+    private ExecutorService executor;
+
+    public EmployeeImportServiceImpl(EmployeeService employeeService,
+                                     @Value("${employees.import.chunk-size:1000}") int chunkSize,
+                                     @Value("${employees.import.max-errors:1000}") int maxErrors,
+                                     @Value("${employees.import.retained-jobs:100}") int retainedJobs,
+                                     @Value("${employees.import.threads:1}") int threads,
+                                     @Value("${employees.import.queue-capacity:10}") int queueCapacity) {
+        this.employeeService = employeeService;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.retainedJobs = retainedJobs;
+        this.queueCapacity = queueCapacity;
+        // not a bean: an Executor bean would replace Boot's applicationTaskExecutor used by async MVC requests
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("employee-import-"));
+    }
+
+    @Override
+    public EmployeeImportStatus startImport(Path csvFile) {
+        ImportJob job = new ImportJob(UUID.randomUUID().toString());
+        register(job);
+        try {
+            executor.execute(() -> run(job, csvFile));
+        } catch (RejectedExecutionException e) {
+            synchronized (jobs) {
+                jobs.remove(job.id);
+            }
+            throw new ImportQueueFullException(queueCapacity);
+        }
+        return job.status();
+    }
+
+    @Override
+    public Optional<EmployeeImportStatus> getImport(String jobId) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(jobId)).map(ImportJob::status);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void run(ImportJob job, Path csvFile) {
+        job.startedAt = Instant.now();
+        job.state = EmployeeImportStatus.State.RUNNING;
+        try (Reader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+            CsvRecordReader csv = new CsvRecordReader(reader);
+            int[] columns = columns(csv.read());
+            int width = Math.max(columns[0], Math.max(columns[1], columns[2])) + 1;
+
+            List<Employee> chunk = new ArrayList<>(chunkSize);
+            List<Long> lines = new ArrayList<>(chunkSize);
+            while (true) {
+                List<String> record;
+                try {
+                    record = csv.read();
+                } catch (IOException e) {
+                    // only an unterminated quote ends up here, and it has consumed the rest of the file
+                    job.reject(csv.getRecordLine(), e.getMessage(), maxErrors);
+                    break;
+                }
+                if (record == null) {
+                    break;
+                }
+                if (record.size() < width) {
+                    job.reject(csv.getRecordLine(), "Expected at least " + width + " fields but found " + record.size(), maxErrors);
+                    continue;
+                }
+                chunk.add(Employee.builder()
+                        .firstName(blankToNull(record.get(columns[0])))
+                        .lastName(blankToNull(record.get(columns[1])))
+                        .email(blankToNull(record.get(columns[2])))
+                        .build());
+                lines.add(csv.getRecordLine());
+                if (chunk.size() == chunkSize) {
+                    saveChunk(job, chunk, lines);
+                    chunk.clear();
+                    lines.clear();
+                }
+            }
+            saveChunk(job, chunk, lines);
+            job.finish(EmployeeImportStatus.State.COMPLETED, null);
+        } catch (Exception e) {
+            job.finish(EmployeeImportStatus.State.FAILED, e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(csvFile);
+            } catch (IOException ignored) {
+                // a leftover temp file is not worth failing the job for
+            }
+        }
+    }
+
+    private void saveChunk(ImportJob job, List<Employee> chunk, List<Long> lines) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<EmployeeBulkResult> results;
+        try {
+            results = employeeService.saveEmployees(chunk);
+        } catch (DuplicateEmailException e) {
+            // an email was taken by another writer during the chunk and the chunk was rolled back;
+            // once more, and the lookup now reports that email as a duplicate
+            results = employeeService.saveEmployees(chunk);
+        }
+        for (EmployeeBulkResult result : results) {
+            if (result.getStatus() == EmployeeBulkResult.Status.CREATED) {
+                job.created();
+            } else {
+                job.reject(lines.get(result.getIndex()), result.getMessage(), maxErrors);
+            }
+        }
+    }
+
+    // positions of firstName, lastName and email in the header; first_name / First Name spellings are accepted
+    private static int[] columns(List<String> header) throws IOException {
+        if (header == null) {
+            throw new IOException("The file is empty");
+        }
+        int[] columns = {-1, -1, -1};
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").replace("_", "").replace(" ", "").toLowerCase(Locale.ROOT);
+            if (name.equals("firstname")) {
+                columns[0] = i;
+            } else if (name.equals("lastname")) {
+                columns[1] = i;
+            } else if (name.equals("email")) {
+                columns[2] = i;
+            }
+        }
+        if (columns[0] < 0 || columns[1] < 0 || columns[2] < 0) {
+            throw new IOException("The header must name the firstName, lastName and email columns");
+        }
+        return columns;
+    }
+
+    private static String blankToNull(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    // keeps the newest jobs, dropping the oldest finished ones beyond retainedJobs
+    private void register(ImportJob job) {
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+            Iterator<ImportJob> oldest = jobs.values().iterator();
+            while (jobs.size() > retainedJobs && oldest.hasNext()) {
+                ImportJob candidate = oldest.next();
+                if (candidate.finishedAt != null) {
+                    oldest.remove();
+                }
+            }
+        }
+    }
+
+    // written by the single import thread running it, read by any request thread
+    private static final class ImportJob {
+        private final String id;
+        private final List<EmployeeImportError> errors = new CopyOnWriteArrayList<>();
+        private volatile EmployeeImportStatus.State state = EmployeeImportStatus.State.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile long createdRows;
+        private volatile long rejectedRows;
+        private volatile String failure;
+
+        private ImportJob(String id) {
+            this.id = id;
+        }
+
+        private void created() {
+            createdRows++;
+        }
+
+        private void reject(long line, String message, int maxErrors) {
+            rejectedRows++;
+            if (errors.size() < maxErrors) {
+                errors.add(new EmployeeImportError(line, message));
+            }
+        }
+
+        private void finish(EmployeeImportStatus.State finalState, String failureMessage) {
+            failure = failureMessage;
+            finishedAt = Instant.now();
+            state = finalState;
+        }
+
+        private EmployeeImportStatus status() {
+            return new EmployeeImportStatus(id, state, startedAt, finishedAt, createdRows + rejectedRows,
+                    createdRows, rejectedRows, List.copyOf(errors), failure);
+        }
+    }
+}
@@ -1,31 +1,115 @@
 package net.vinlabs.springboot.service.impl;
 
-import net.vinlabs.springboot.exception.ResourceNotFoundException;
+import net.vinlabs.springboot.config.CacheConfig;
+import net.vinlabs.springboot.dto.EmployeeBulkResult;
+import net.vinlabs.springboot.dto.EmployeeFieldsPage;
+import net.vinlabs.springboot.dto.EmployeePage;
+import net.vinlabs.springboot.dto.EmployeePatch;
+import net.vinlabs.springboot.exception.DuplicateEmailException;
 import net.vinlabs.springboot.model.Employee;
 import net.vinlabs.springboot.repository.EmployeeRepository;
 import net.vinlabs.springboot.service.EmployeeService;
+import net.vinlabs.springboot.service.EmployeesChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
 
     private EmployeeRepository employeeRepository;
+    private ApplicationEventPublisher eventPublisher;
 
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, ApplicationEventPublisher eventPublisher) {
         this.employeeRepository = employeeRepository;
+        this.eventPublisher = eventPublisher;
     }
 
+    // insert first and let the unique index on email_normalized reject duplicates,
+    // no SELECT beforehand and no window for two concurrent creates to both pass a check
     @Override
+    @CachePut(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#result.id")
     public Employee saveEmployee(Employee employee) {
-        Optional<Employee> employeeObject = employeeRepository.findByEmail(employee.getEmail());
-        if (employeeObject.isPresent()) {
-            throw new ResourceNotFoundException("The emlpoye with the given email already exists : " + employee.getEmail());
+        try {
+            Employee savedEmployee = employeeRepository.saveAndFlush(employee);
+            employeesChanged();
+            return savedEmployee;
+        } catch (DataIntegrityViolationException e) {
+            throw translateEmailConflict(e, employee.getEmail());
         }
-        return employeeRepository.save(employee);
+    }
+
+    // new ids may have been looked up (and cached as missing) before they existed
+    @Override
+    @Transactional(timeoutString = "${employees.bulkhead.write.timeout-seconds:10}")
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, allEntries = true)
+    public List<EmployeeBulkResult> saveEmployees(List<Employee> employees) {
+        return insert(employees);
+    }
+
+    @Override
+    @Transactional(timeoutString = "${employees.bulkhead.write.timeout-seconds:10}")
+    public List<EmployeeBulkResult> insertEmployees(List<Employee> employees) {
+        return insert(employees);
+    }
+
+    private List<EmployeeBulkResult> insert(List<Employee> employees) {
+        // one set-based lookup for the whole request instead of a findByEmail per item
+        Set<String> emails = employees.stream()
+                .filter(Objects::nonNull)
+                .map(e -> Employee.normalizeEmail(e.getEmail()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> takenEmails = emails.isEmpty() ? new HashSet<>() : new HashSet<>(employeeRepository.findExistingNormalizedEmails(emails));
+
+        EmployeeBulkResult[] results = new EmployeeBulkResult[employees.size()];
+        List<Employee> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+            if (employee == null || employee.getFirstName() == null || employee.getLastName() == null) {
+                results[i] = EmployeeBulkResult.rejected(i, EmployeeBulkResult.Status.INVALID, "firstName and lastName are required");
+            } else if (employee.getEmail() != null && !takenEmails.add(Employee.normalizeEmail(employee.getEmail()))) {
+                results[i] = EmployeeBulkResult.rejected(i, EmployeeBulkResult.Status.DUPLICATE_EMAIL,
+                        "The employee with the given email already exists : " + employee.getEmail());
+            } else {
+                accepted.add(employee);
+                acceptedIndexes.add(i);
+            }
+        }
+
+        try {
+            employeeRepository.batchInsert(accepted);
+        } catch (DataIntegrityViolationException e) {
+            // an email was taken between the lookup and the insert, the whole request is rolled back
+            throw translateEmailConflict(e, null);
+        }
+        for (int i = 0; i < accepted.size(); i++) {
+            results[acceptedIndexes.get(i)] = EmployeeBulkResult.created(acceptedIndexes.get(i), accepted.get(i).getId());
+        }
+        if (!accepted.isEmpty()) {
+            employeesChanged();
+        }
+        return List.of(results);
     }
 
     @Override
@@ -34,17 +118,110 @@ public class EmployeeServiceImpl implements EmployeeService {
     }
 
     @Override
+    public EmployeePage getEmployees(long after, int limit) {
+        // fetch one extra row to know whether another page follows, without a count query
+        return toPage(employeeRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, limit + 1)), limit);
+    }
+
+    @Override
+    public EmployeeFieldsPage getEmployeeFields(Collection<String> fields, long after, int limit) {
+        List<Map<String, Object>> rows = employeeRepository.findFieldsByIdGreaterThan(fields, after, limit + 1);
+        Long nextCursor = null;
+        if (rows.size() > limit) {
+            rows = new ArrayList<>(rows.subList(0, limit));
+            nextCursor = (Long) rows.get(limit - 1).get("id");
+        }
+        if (!fields.contains("id")) {
+            // the id is always selected for the cursor but only returned when asked for
+            rows.forEach(row -> row.remove("id"));
+        }
+        return new EmployeeFieldsPage(rows, nextCursor);
+    }
+
+    @Override
+    public EmployeePage searchEmployees(String firstName, String lastName, long after, int limit) {
+        return toPage(employeeRepository.findByFirstNameAndLastNameAndIdGreaterThanOrderByIdAsc(
+                firstName, lastName, after, PageRequest.of(0, limit + 1)), limit);
+    }
+
+    // no timeout, a full export takes as long as the table is big; it holds one bulk-read permit throughout
+    @Override
+    @Transactional(readOnly = true)
+    public long exportEmployees(Consumer<Employee> consumer) {
+        return employeeRepository.scrollAll(consumer);
+    }
+
+    // unknown ids are cached too (as null), so repeated 404 lookups stay off the database
+    @Override
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES_CACHE, sync = true, cacheResolver = CacheConfig.LOOKUP_CACHE_RESOLVER)
     public Optional<Employee> getEmployeeById(long id) {
         return employeeRepository.findById(id);
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#employee.id")
     public Employee updateEmployee(Employee employee) {
-        return employeeRepository.save(employee);
+        try {
+            Employee updatedEmployee = employeeRepository.saveAndFlush(employee);
+            employeesChanged();
+            return updatedEmployee;
+        } catch (DataIntegrityViolationException e) {
+            throw translateEmailConflict(e, employee.getEmail());
+        }
+    }
+
+    // no SELECT first: the affected row count tells whether the employee exists
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
+    public boolean patchEmployee(long id, EmployeePatch patch) {
+        try {
+            return changed(employeeRepository.updateFields(id, patch)) > 0;
+        } catch (DataIntegrityViolationException e) {
+            throw translateEmailConflict(e, patch.getEmail());
+        }
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
+    public boolean deleteEmployeeById(long id) {
+        return changed(employeeRepository.deleteByIdReturningCount(id)) > 0;
     }
 
     @Override
-    public void deleteEmployeeById(long id) {
-        employeeRepository.deleteById(id);
+    @Transactional(timeoutString = "${employees.bulkhead.write.timeout-seconds:10}")
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, allEntries = true)
+    public int deleteEmployeesByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return changed(employeeRepository.deleteByIds(ids));
+    }
+
+    // listeners see the event after the surrounding transaction commits (or at once when there is none)
+    private void employeesChanged() {
+        eventPublisher.publishEvent(new EmployeesChangedEvent());
+    }
+
+    private int changed(int affectedRows) {
+        if (affectedRows > 0) {
+            employeesChanged();
+        }
+        return affectedRows;
+    }
+
+    static EmployeePage toPage(List<Employee> employees, int limit) {
+        if (employees.size() <= limit) {
+            return new EmployeePage(employees, null);
+        }
+        List<Employee> page = new ArrayList<>(employees.subList(0, limit));
+        return new EmployeePage(page, page.get(limit - 1).getId());
+    }
+
+    static RuntimeException translateEmailConflict(DataIntegrityViolationException e, String email) {
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        if (message != null && message.toLowerCase(Locale.ROOT).contains(Employee.EMAIL_INDEX)) {
+            return email == null ? new DuplicateEmailException(e) : new DuplicateEmailException(email, e);
+        }
+        return e;
     }
 }
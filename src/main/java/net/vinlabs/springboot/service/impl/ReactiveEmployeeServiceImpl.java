@@ -0,0 +1,86 @@
+package net.vinlabs.springboot.service.impl;
+
+import net.vinlabs.springboot.dto.EmployeePage;
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.repository.ReactiveEmployeeRepository;
+import net.vinlabs.springboot.service.EmployeesChangedEvent;
+import net.vinlabs.springboot.service.ReactiveEmployeeService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+    private ReactiveEmployeeRepository employeeRepository;
+    private ApplicationEventPublisher eventPublisher;
+
+    public ReactiveEmployeeServiceImpl(ReactiveEmployeeRepository employeeRepository,
+                                       ApplicationEventPublisher eventPublisher) {
+        this.employeeRepository = employeeRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // like EmployeeServiceImpl the unique index on email_normalized rejects duplicates, no SELECT beforehand
+    @Override
+    public Mono<Employee> saveEmployee(Employee employee) {
+        // a new row whatever id or version the client sent
+        Employee newEmployee = Employee.builder()
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .emailNormalized(Employee.normalizeEmail(employee.getEmail()))
+                .build();
+        return employeeRepository.insert(newEmployee)
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> EmployeeServiceImpl.translateEmailConflict(e, employee.getEmail()))
+                .doOnSuccess(savedEmployee -> employeesChanged());
+    }
+
+    @Override
+    public Mono<EmployeePage> getEmployees(long after, int limit) {
+        // one extra row tells whether another page follows
+        return employeeRepository.findByIdGreaterThanOrderByIdAsc(after, limit + 1)
+                .collectList()
+                .map(employees -> EmployeeServiceImpl.toPage(employees, limit));
+    }
+
+    @Override
+    public Flux<Employee> exportEmployees() {
+        return employeeRepository.findAllOrderByIdAsc();
+    }
+
+    @Override
+    public Mono<Employee> getEmployeeById(long id) {
+        return employeeRepository.findById(id);
+    }
+
+    // the UPDATE is conditioned on the version, a concurrent change fails with OptimisticLockingFailureException
+    @Override
+    public Mono<Employee> updateEmployee(Employee employee) {
+        employee.setEmailNormalized(Employee.normalizeEmail(employee.getEmail()));
+        return employeeRepository.update(employee)
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> EmployeeServiceImpl.translateEmailConflict(e, employee.getEmail()))
+                .doOnSuccess(updatedEmployee -> employeesChanged());
+    }
+
+    @Override
+    public Mono<Boolean> deleteEmployeeById(long id) {
+        return employeeRepository.deleteByIdReturningCount(id)
+                .map(affectedRows -> {
+                    if (affectedRows > 0) {
+                        employeesChanged();
+                    }
+                    return affectedRows > 0;
+                });
+    }
+
+    private void employeesChanged() {
+        eventPublisher.publishEvent(new EmployeesChangedEvent());
+    }
+}
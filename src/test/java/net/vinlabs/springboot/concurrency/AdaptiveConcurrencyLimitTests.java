@@ -0,0 +1,105 @@
+package net.vinlabs.springboot.concurrency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimitTests {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @DisplayName("Requests beyond the limit are not admitted until one is released")
+    @Test
+    public void givenLimitReached_whenTryAcquire_thenRejected() {
+        //Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 1.5);
+        limit.tryAcquire();
+        limit.tryAcquire();
+
+        //When //Then
+        assertThat(limit.tryAcquire()).isFalse();
+        limit.releaseWithoutSample();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.getInFlight()).isEqualTo(2);
+    }
+
+    @DisplayName("A saturated limit grows while latency stays steady")
+    @Test
+    public void givenSteadyLatencyAtLimit_whenSampled_thenLimitGrows() {
+        //Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, 1.5);
+
+        //When
+        runSaturated(limit, FAST, 20);
+
+        //Then
+        assertThat(limit.getLimit()).isGreaterThan(10);
+    }
+
+    @DisplayName("The limit shrinks as soon as latency rises well above its no-load latency, not below the minimum")
+    @Test
+    public void givenRisingLatency_whenSampled_thenLimitShrinks() {
+        //Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(40, 8, 100, 1.5);
+        runSaturated(limit, FAST, 5);
+        int before = limit.getLimit();
+
+        //When
+        runSaturated(limit, SLOW, 3);
+
+        //Then
+        assertThat(limit.getLimit()).isLessThan(before).isGreaterThanOrEqualTo(8);
+    }
+
+    @DisplayName("Failed requests cut the limit even when latency looks fine")
+    @Test
+    public void givenDrops_whenSampled_thenLimitBacksOff() {
+        //Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 1, 100, 1.5);
+
+        //When
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire();
+            limit.release(FAST, true);
+        }
+
+        //Then
+        assertThat(limit.getLimit()).isEqualTo(45);
+    }
+
+    @DisplayName("A limit far above the actual concurrency does not keep growing")
+    @Test
+    public void givenLowConcurrency_whenSampled_thenLimitUnchanged() {
+        //Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 1, 100, 1.5);
+
+        //When
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.release(FAST, false);
+        }
+
+        //Then
+        assertThat(limit.getLimit()).isEqualTo(50);
+    }
+
+    // fills the limit, then releases every admitted request with the given latency, window after window
+    private static void runSaturated(AdaptiveConcurrencyLimit limit, long rttNanos, int windows) {
+        for (int window = 0; window < windows; window++) {
+            int admitted = 0;
+            while (limit.tryAcquire()) {
+                admitted++;
+            }
+            for (int i = 0; i < Math.max(admitted, 10); i++) {
+                if (i >= admitted) {
+                    limit.tryAcquire();
+                }
+                limit.release(rttNanos, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package net.vinlabs.springboot.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+public class ConcurrencyLimitFilterTests {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdaptiveConcurrencyLimit readLimit = new AdaptiveConcurrencyLimit(1, 1, 10, 1.5);
+    private final AdaptiveConcurrencyLimit writeLimit = new AdaptiveConcurrencyLimit(1, 1, 10, 1.5);
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(readLimit, writeLimit, Duration.ofSeconds(2), meterRegistry);
+
+    @DisplayName("A read over the read limit is shed with 503 and Retry-After while writes are still admitted")
+    @Test
+    public void givenReadLimitReached_whenRequests_thenReadShedWriteAdmitted() throws Exception {
+        //Given
+        readLimit.tryAcquire();
+        MockHttpServletResponse readResponse = new MockHttpServletResponse();
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        MockFilterChain readChain = new MockFilterChain();
+        MockFilterChain writeChain = new MockFilterChain();
+
+        //When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/employees/1"), readResponse, readChain);
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/employees"), writeResponse, writeChain);
+
+        //Then
+        assertThat(readResponse.getStatus()).isEqualTo(503);
+        assertThat(readResponse.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(readChain.getRequest()).isNull();
+        assertThat(writeResponse.getStatus()).isEqualTo(200);
+        assertThat(writeChain.getRequest()).isNotNull();
+        assertThat(writeLimit.getInFlight()).isZero();
+        assertThat(meterRegistry.get(ConcurrencyLimitFilter.REJECTED).tag("operation", "read").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(ConcurrencyLimitFilter.REJECTED).tag("operation", "write").counter().count()).isZero();
+    }
+
+    @DisplayName("A request whose chain throws is released as a drop even though its status is still 200")
+    @Test
+    public void givenChainThrows_whenRequest_thenReleasedAsDrop() {
+        //Given
+        AdaptiveConcurrencyLimit spiedWriteLimit = spy(new AdaptiveConcurrencyLimit(1, 1, 10, 1.5));
+        ConcurrencyLimitFilter throwingFilter = new ConcurrencyLimitFilter(readLimit, spiedWriteLimit, Duration.ofSeconds(2), meterRegistry);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //When
+        assertThatThrownBy(() -> throwingFilter.doFilter(new MockHttpServletRequest("POST", "/api/employees"), response,
+                (request, servletResponse) -> {
+                    throw new IllegalStateException("database is down");
+                }))
+                .isInstanceOf(IllegalStateException.class);
+
+        //Then
+        assertThat(response.getStatus()).isEqualTo(200);
+        verify(spiedWriteLimit).release(anyLong(), eq(true));
+        assertThat(spiedWriteLimit.getInFlight()).isZero();
+    }
+
+    @DisplayName("A fractional Retry-After is rounded up to whole seconds")
+    @Test
+    public void givenFractionalRetryAfter_whenShed_thenRoundedUp() throws Exception {
+        //Given
+        ConcurrencyLimitFilter fractionalFilter = new ConcurrencyLimitFilter(readLimit, writeLimit, Duration.ofMillis(1500), new SimpleMeterRegistry());
+        readLimit.tryAcquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //When
+        fractionalFilter.doFilter(new MockHttpServletRequest("GET", "/api/employees/1"), response, new MockFilterChain());
+
+        //Then
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+    }
+}
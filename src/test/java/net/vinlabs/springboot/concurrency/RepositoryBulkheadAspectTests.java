@@ -0,0 +1,58 @@
+package net.vinlabs.springboot.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.vinlabs.springboot.repository.EmployeeRepository;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class RepositoryBulkheadAspectTests {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+    @Mock
+    private MethodSignature signature;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @DisplayName("A repository call outside a transaction runs in one with the operation timeout, timeouts are counted")
+    @Test
+    public void givenTimedOutBulkRead_whenGuarded_thenTimeoutAppliedAndCounted() throws Throwable {
+        //Given
+        RepositoryBulkheadAspect aspect = new RepositoryBulkheadAspect(transactionManager, meterRegistry,
+                20, Duration.ofMillis(100), 2,
+                3, Duration.ofMillis(250), 30,
+                5, Duration.ofSeconds(1), 10);
+        given(joinPoint.getSignature()).willReturn(signature);
+        given(signature.getMethod()).willReturn(EmployeeRepository.class.getMethod("findAll"));
+        given(joinPoint.proceed()).willThrow(new QueryTimeoutException("statement cancelled"));
+
+        //When
+        assertThatThrownBy(() -> aspect.guard(joinPoint)).isInstanceOf(QueryTimeoutException.class);
+
+        //Then
+        verify(transactionManager).getTransaction(argThat((TransactionDefinition definition) ->
+                definition.getTimeout() == 30 && definition.isReadOnly()));
+        assertThat(meterRegistry.get(RepositoryBulkheadAspect.TIMEOUTS).tag("operation", "bulk-read").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(RepositoryBulkheadAspect.AVAILABLE).tag("operation", "bulk-read").gauge().value()).isEqualTo(3);
+    }
+}
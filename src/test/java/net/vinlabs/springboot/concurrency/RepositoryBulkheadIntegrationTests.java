@@ -0,0 +1,74 @@
+package net.vinlabs.springboot.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.vinlabs.springboot.exception.BulkheadFullException;
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.repository.EmployeeRepository;
+import net.vinlabs.springboot.service.EmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// a single bulk-read permit that is not waited for, so one stalled export fills the bulkhead
+@SpringBootTest(properties = {
+        "employees.bulkhead.bulk-read.permits=1",
+        "employees.bulkhead.bulk-read.max-wait=0ms",
+        "spring.cache.type=none"
+})
+@AutoConfigureTestDatabase
+public class RepositoryBulkheadIntegrationTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    public void cleanup() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    @DisplayName("A stalled bulk read rejects further bulk reads while point reads and writes go through")
+    @Test
+    public void givenStalledBulkRead_whenOtherOperations_thenOnlyBulkReadsRejected() throws Exception {
+        //Given
+        Employee employee = employeeService.saveEmployee(Employee.builder().firstName("Vinod").lastName("Chattergee").email("vinod@gmail.com").build());
+        CountDownLatch exporting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Long> export = CompletableFuture.supplyAsync(() -> employeeService.exportEmployees(e -> {
+            exporting.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(exporting.await(10, TimeUnit.SECONDS)).isTrue();
+
+        //When //Then
+        try {
+            assertThatThrownBy(() -> employeeService.getAllEmployees()).isInstanceOf(BulkheadFullException.class);
+            assertThat(employeeService.getEmployeeById(employee.getId())).isPresent();
+            assertThat(employeeService.saveEmployee(Employee.builder().firstName("Nisha").lastName("Vinod").email("nisha@gmail.com").build()).getId())
+                    .isPositive();
+        } finally {
+            release.countDown();
+        }
+        assertThat(export.get(10, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(employeeService.getAllEmployees()).hasSize(2);
+        assertThat(meterRegistry.get(RepositoryBulkheadAspect.REJECTED).tag("operation", "bulk-read").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(RepositoryBulkheadAspect.AVAILABLE).tag("operation", "bulk-read").gauge().value()).isEqualTo(1);
+    }
+}
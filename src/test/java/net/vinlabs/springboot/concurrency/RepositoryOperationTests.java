@@ -0,0 +1,34 @@
+package net.vinlabs.springboot.concurrency;
+
+import net.vinlabs.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryOperationTests {
+
+    @DisplayName("Repository methods are classified as point reads, bulk reads or writes")
+    @Test
+    public void givenRepositoryMethods_whenClassified_thenOperationMatchesDatabaseUse() throws Exception {
+        //Given
+        Class<EmployeeRepository> repository = EmployeeRepository.class;
+
+        //When //Then
+        assertThat(RepositoryOperation.of(repository.getMethod("findById", Object.class))).isEqualTo(RepositoryOperation.POINT_READ);
+        assertThat(RepositoryOperation.of(repository.getMethod("findByEmail", String.class))).isEqualTo(RepositoryOperation.POINT_READ);
+        assertThat(RepositoryOperation.of(repository.getMethod("findAll"))).isEqualTo(RepositoryOperation.BULK_READ);
+        assertThat(RepositoryOperation.of(repository.getMethod("count"))).isEqualTo(RepositoryOperation.BULK_READ);
+        assertThat(RepositoryOperation.of(repository.getMethod("scrollAll", Consumer.class))).isEqualTo(RepositoryOperation.BULK_READ);
+        assertThat(RepositoryOperation.of(repository.getMethod("findByIdGreaterThanOrderByIdAsc", long.class, Pageable.class)))
+                .isEqualTo(RepositoryOperation.BULK_READ);
+        assertThat(RepositoryOperation.of(repository.getMethod("saveAndFlush", Object.class))).isEqualTo(RepositoryOperation.WRITE);
+        assertThat(RepositoryOperation.of(repository.getMethod("batchInsert", List.class))).isEqualTo(RepositoryOperation.WRITE);
+        assertThat(RepositoryOperation.of(repository.getMethod("deleteByIds", Collection.class))).isEqualTo(RepositoryOperation.WRITE);
+    }
+}
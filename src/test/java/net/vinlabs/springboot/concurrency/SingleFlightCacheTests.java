@@ -0,0 +1,129 @@
+package net.vinlabs.springboot.concurrency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightCacheTests {
+
+    private final Cache cache = new SingleFlightCache(new ConcurrentMapCache("employees"));
+
+    @DisplayName("Concurrent lookups of a missing key run the loader once and all get its value")
+    @Test
+    public void givenConcurrentMisses_whenGet_thenLoadedOnce() throws Exception {
+        //Given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get(1L, () -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "Vinod" + loads.incrementAndGet();
+        }), executor);
+        loading.await(5, TimeUnit.SECONDS);
+
+        //When
+        List<CompletableFuture<String>> waiters = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            waiters.add(CompletableFuture.supplyAsync(() -> cache.get(1L, () -> "Nisha" + loads.incrementAndGet()), executor));
+        }
+        release.countDown();
+
+        //Then
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("Vinod1");
+        for (CompletableFuture<String> waiter : waiters) {
+            assertThat(waiter.get(5, TimeUnit.SECONDS)).isEqualTo("Vinod1");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(cache.get(1L).get()).isEqualTo("Vinod1");
+        executor.shutdownNow();
+    }
+
+    @DisplayName("A failed load is not cached and the next lookup loads again")
+    @Test
+    public void givenFailingLoader_whenGet_thenValueRetrievalExceptionAndRetried() {
+        //When //Then
+        assertThatThrownBy(() -> cache.get(1L, () -> {
+            throw new IllegalStateException("database is down");
+        }))
+                .isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(1L, () -> "Vinod")).isEqualTo("Vinod");
+    }
+
+    @DisplayName("A missing row is cached as null like the wrapped cache does")
+    @Test
+    public void givenLoaderReturningNull_whenGet_thenNullCached() {
+        //When
+        Object value = cache.get(1L, () -> null);
+
+        //Then
+        assertThat(value).isNull();
+        assertThat(cache.get(1L)).isNotNull();
+        assertThat(cache.get(1L, () -> "Vinod")).isNull();
+    }
+
+    @DisplayName("A load racing an evict returns its value but does not cache it over the eviction")
+    @Test
+    public void givenEvictDuringLoad_whenLoadCompletes_thenValueNotCached() throws Exception {
+        //Given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CompletableFuture<String> stale = CompletableFuture.supplyAsync(() -> cache.get(1L, () -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "Vinod";
+        }), executor);
+        loading.await(5, TimeUnit.SECONDS);
+
+        //When
+        cache.evict(1L);
+        release.countDown();
+
+        //Then
+        assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo("Vinod");
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(1L, () -> "Nisha")).isEqualTo("Nisha");
+        executor.shutdownNow();
+    }
+
+    @DisplayName("A load racing a clear does not cache its value")
+    @Test
+    public void givenClearDuringLoad_whenLoadCompletes_thenValueNotCached() throws Exception {
+        //Given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CompletableFuture<String> stale = CompletableFuture.supplyAsync(() -> cache.get(1L, () -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "Vinod";
+        }), executor);
+        loading.await(5, TimeUnit.SECONDS);
+
+        //When
+        cache.clear();
+        release.countDown();
+
+        //Then
+        assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo("Vinod");
+        assertThat(cache.get(1L)).isNull();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,44 @@
+package net.vinlabs.springboot.concurrency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class VirtualThreadsTests {
+
+    @DisplayName("On a runtime without virtual threads the executor cannot be created and says why")
+    @Test
+    public void givenRuntimeBeforeJava21_whenNewExecutor_thenUnsupported() {
+        //Given
+        assumeTrue(Runtime.version().feature() < 19);
+
+        //When //Then
+        assertThat(VirtualThreads.isSupported()).isFalse();
+        assertThatThrownBy(() -> VirtualThreads.newThreadPerTaskExecutor("test-"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Java 21");
+    }
+
+    @DisplayName("On Java 21 and later every task runs on its own named virtual thread")
+    @Test
+    public void givenRuntimeWithVirtualThreads_whenExecute_thenTaskRunsOnVirtualThread() throws Exception {
+        //Given
+        assumeFalse(Runtime.version().feature() < 21);
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+
+        //When
+        Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        //Then
+        assertThat((boolean) Thread.class.getMethod("isVirtual").invoke(thread)).isTrue();
+        assertThat(thread.getName()).isEqualTo("test-0");
+    }
+}
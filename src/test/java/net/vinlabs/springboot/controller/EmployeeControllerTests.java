@@ -1,39 +1,86 @@
 package net.vinlabs.springboot.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import net.vinlabs.springboot.dto.EmployeeBulkResult;
+import net.vinlabs.springboot.dto.EmployeeFieldsPage;
+import net.vinlabs.springboot.dto.EmployeePage;
+import net.vinlabs.springboot.dto.EmployeePatch;
+import net.vinlabs.springboot.dto.EmployeeSnapshot;
+import net.vinlabs.springboot.exception.DuplicateEmailException;
+import net.vinlabs.springboot.exception.EmployeeServiceBusyException;
 import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.service.AsyncEmployeeService;
 import net.vinlabs.springboot.service.EmployeeService;
+import net.vinlabs.springboot.service.EmployeeSnapshotCache;
+import net.vinlabs.springboot.service.IdempotencyStore;
 import org.aspectj.weaver.ast.ITestVisitor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 
+import javax.servlet.AsyncListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest
+@WebMvcTest(EmployeeController.class)
+@Import(IdempotencyStore.class)
 public class EmployeeControllerTests {
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
     @Autowired
     private MockMvc mockMvc;
     @MockBean
     private EmployeeService employeeService;
+    @MockBean
+    private AsyncEmployeeService asyncEmployeeService;
+    @MockBean
+    private EmployeeSnapshotCache snapshotCache;
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -64,6 +111,168 @@ public class EmployeeControllerTests {
 
     }
 
+    @Test
+    public void givenRetriedIdempotencyKey_whenCreateEmployee_thenFirstResultReplayed() throws Exception {
+        //Given
+        Employee employee = Employee.builder()
+                .firstName("Vinod")
+                .lastName("Chattergee")
+                .email("vinod@gmail.com")
+                .build();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> {
+                    Employee saved = invocation.getArgument(0);
+                    saved.setId(42L);
+                    return saved;
+                });
+        mockMvc.perform(post("/api/employees")
+                        .header(EmployeeController.IDEMPOTENCY_KEY_HEADER, "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated());
+
+        //When
+        ResultActions retry = mockMvc.perform(post("/api/employees")
+                .header(EmployeeController.IDEMPOTENCY_KEY_HEADER, "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+        ResultActions reused = mockMvc.perform(post("/api/employees")
+                .header(EmployeeController.IDEMPOTENCY_KEY_HEADER, "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Employee.builder().firstName("Other").lastName("Body").build())));
+
+        //Then
+        retry.andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is(42)));
+        reused.andExpect(status().isUnprocessableEntity());
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+    }
+
+    @Test
+    public void givenSmileBodyAndCborAccept_whenCreateEmployee_thenDecodeSmileAndAnswerCbor() throws Exception {
+        //Given
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+        Employee employee = Employee.builder()
+                .firstName("Vinod")
+                .lastName("Chattergee")
+                .email("Vinod@gmail.com")
+                .build();
+
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+        //When
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(SMILE)
+                .accept(CBOR)
+                .content(smileMapper.writeValueAsBytes(employee)));
+
+        //Then
+        byte[] body = response.andExpect(status().isCreated())
+                .andExpect(content().contentType(CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        Employee created = cborMapper.readValue(body, Employee.class);
+        assertThat(created.getEmail()).isEqualTo(employee.getEmail());
+        assertThat(created.getLastName()).isEqualTo(employee.getLastName());
+    }
+
+    @Test
+    public void givenSmileAccept_whenGetAllEmployees_thenReturnSmileListVaryingByAccept() throws Exception {
+        //Given
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("Vinod")
+                .lastName("Chattergee")
+                .email("Vinod@gmail.com")
+                .build();
+        given(employeeService.getEmployees(0L, 50))
+                .willReturn(new EmployeePage(List.of(employee), null));
+        //When
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .accept(SMILE));
+
+        //Then
+        byte[] body = response.andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("W/\"p-")))
+                .andReturn().getResponse().getContentAsByteArray();
+        Employee[] employees = smileMapper.readValue(body, Employee[].class);
+        assertThat(employees).extracting(Employee::getEmail).containsExactly("Vinod@gmail.com");
+    }
+
+    @Test
+    public void givenEmployeeWithExistingEmail_whenCreateEmployee_thenReturnConflict() throws Exception {
+        //Given
+        Employee employee = Employee.builder()
+                .firstName("Vinod")
+                .lastName("Chattergee")
+                .email("Vinod@gmail.com")
+                .build();
+
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willThrow(new DuplicateEmailException(employee.getEmail()));
+        //When
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //Then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void givenListOfEmployees_whenCreateEmployees_thenReturnResultPerItem() throws Exception {
+        //Given
+        List<Employee> employees = List.of(
+                Employee.builder()
+                        .firstName("Vinod")
+                        .lastName("Chattergee")
+                        .email("Vinod@gmail.com")
+                        .build(),
+                Employee.builder()
+                        .firstName("Gautham")
+                        .lastName("Vinod")
+                        .email("Vinod@gmail.com")
+                        .build()
+        );
+        given(employeeService.saveEmployees(anyList()))
+                .willReturn(List.of(
+                        EmployeeBulkResult.created(0, 1L),
+                        EmployeeBulkResult.rejected(1, EmployeeBulkResult.Status.DUPLICATE_EMAIL, "duplicate")));
+        //When
+        ResultActions response = mockMvc.perform(post("/api/employees/_bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employees)));
+
+        //Then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[1].status", is("DUPLICATE_EMAIL")));
+    }
+
+    @Test
+    public void givenTooManyEmployees_whenCreateEmployees_thenReturnPayloadTooLarge() throws Exception {
+        //Given
+        List<Employee> employees = Collections.nCopies(1001, Employee.builder()
+                .firstName("Vinod")
+                .lastName("Chattergee")
+                .build());
+        //When
+        ResultActions response = mockMvc.perform(post("/api/employees/_bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employees)));
+
+        //Then
+        response.andExpect(status().isPayloadTooLarge());
+        verify(employeeService, never()).saveEmployees(anyList());
+    }
+
     @Test
     public void givenListOfEmployees_whenGetAllEmployees_thenReturnListOfEmployees() throws Exception {
         //Given
@@ -80,8 +289,8 @@ public class EmployeeControllerTests {
                         .email("Gautham@gmail.com")
                         .build()
         );
-        given(employeeService.getAllEmployees())
-                .willReturn(employees);
+        given(employeeService.getEmployees(0L, 50))
+                .willReturn(new EmployeePage(employees, null));
         //When
         ResultActions response = mockMvc.perform(get("/api/employees")
                 .contentType(MediaType.APPLICATION_JSON));
@@ -90,10 +299,225 @@ public class EmployeeControllerTests {
         //MockMvcResultHandlers.print() - Prints the request and the response.
         response.andDo(MockMvcResultHandlers.print())
                 .andExpect(jsonPath("$.size()", is(employees.size())))
+                .andExpect(header().doesNotExist(EmployeeController.NEXT_CURSOR_HEADER))
                 .andExpect(status().is2xxSuccessful());
 
     }
 
+    @Test
+    public void givenMoreEmployeesThanLimit_whenGetAllEmployees_thenReturnPageWithNextCursor() throws Exception {
+        //Given
+        List<Employee> employees = List.of(
+                Employee.builder()
+                        .id(11L)
+                        .firstName("Vinod")
+                        .lastName("Chattergee")
+                        .email("Vinod@gmail.com")
+                        .build(),
+                Employee.builder()
+                        .id(12L)
+                        .firstName("Gautham")
+                        .lastName("Vinod")
+                        .email("Gautham@gmail.com")
+                        .build()
+        );
+        given(employeeService.getEmployees(10L, 2))
+                .willReturn(new EmployeePage(employees, 12L));
+        //When
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("after", "10")
+                .param("limit", "2"));
+
+        //Then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(header().string(EmployeeController.NEXT_CURSOR_HEADER, "12"));
+    }
+
+    @Test
+    public void givenNamesakes_whenSearchEmployees_thenReturnAllMatchesWithNextCursor() throws Exception {
+        //Given
+        List<Employee> employees = List.of(
+                Employee.builder().id(3L).firstName("Vinod").lastName("Chattergee").email("vinod1@gmail.com").build(),
+                Employee.builder().id(7L).firstName("Vinod").lastName("Chattergee").email("vinod2@gmail.com").build()
+        );
+        given(employeeService.searchEmployees("Vinod", "Chattergee", 0L, 2))
+                .willReturn(new EmployeePage(employees, 7L));
+        //When
+        ResultActions response = mockMvc.perform(get("/api/employees/search")
+                .param("firstName", "Vinod")
+                .param("lastName", "Chattergee")
+                .param("limit", "2"));
+
+        //Then
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[1].email", is("vinod2@gmail.com")))
+                .andExpect(header().string(EmployeeController.NEXT_CURSOR_HEADER, "7"));
+    }
+
+    @Test
+    public void givenMissingLastName_whenSearchEmployees_thenReturnBadRequest() throws Exception {
+        //When
+        ResultActions response = mockMvc.perform(get("/api/employees/search")
+                .param("firstName", "Vinod"));
+
+        //Then
+        response.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void givenFields_whenGetAllEmployees_thenReturnOnlyRequestedFields() throws Exception {
+        //Given
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 11L);
+        row.put("lastName", "Chattergee");
+        given(employeeService.getEmployeeFields(List.of("id", "lastName"), 0L, 1))
+                .willReturn(new EmployeeFieldsPage(List.of(row), 11L));
+        //When
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("fields", "id,lastName")
+                .param("limit", "1"));
+
+        //Then
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(11)))
+                .andExpect(jsonPath("$[0].lastName", is("Chattergee")))
+                .andExpect(jsonPath("$[0].email").doesNotExist())
+                .andExpect(header().string(EmployeeController.NEXT_CURSOR_HEADER, "11"));
+    }
+
+    @Test
+    public void givenUnknownField_whenGetAllEmployees_thenReturnBadRequest() throws Exception {
+        //When
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("fields", "id,emailNormalized"));
+
+        //Then
+        response.andExpect(status().isBadRequest());
+        verify(employeeService, never()).getEmployeeFields(any(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void givenSnapshot_whenGetSnapshot_thenWriteCachedBytes() throws Exception {
+        //Given
+        byte[] json = "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8);
+        given(snapshotCache.getSnapshot())
+                .willReturn(new EmployeeSnapshot(7L, "abc", json, new byte[]{31, -117}));
+        //When
+        ResultActions response = mockMvc.perform(get("/api/employees/snapshot"));
+
+        //Then
+        response.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes(json))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"s-abc\""))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        verify(employeeService, never()).getAllEmployees();
+    }
+
+    @Test
+    public void givenGzipClient_whenGetSnapshot_thenWriteCompressedBytes() throws Exception {
+        //Given
+        byte[] gzipJson = {31, -117, 8, 0};
+        given(snapshotCache.getSnapshot())
+                .willReturn(new EmployeeSnapshot(7L, "abc", new byte[0], gzipJson));
+        //When
+        ResultActions response = mockMvc.perform(get("/api/employees/snapshot")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"));
+
+        //Then
+        response.andExpect(status().isOk())
+                .andExpect(content().bytes(gzipJson))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"s-abc-gzip\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Test
+    public void givenGzipRefused_whenGetSnapshot_thenWritePlainBytes() throws Exception {
+        //Given
+        byte[] json = "[]".getBytes(StandardCharsets.UTF_8);
+        given(snapshotCache.getSnapshot())
+                .willReturn(new EmployeeSnapshot(7L, "abc", json, new byte[]{31, -117}));
+        //When
+        ResultActions response = mockMvc.perform(get("/api/employees/snapshot")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, *"));
+
+        //Then
+        response.andExpect(status().isOk())
+                .andExpect(content().bytes(json))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"s-abc\""))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void givenCurrentVersionETag_whenGetSnapshot_thenReturnNotModified() throws Exception {
+        //Given
+        given(snapshotCache.getSnapshot())
+                .willReturn(new EmployeeSnapshot(7L, "abc", new byte[]{'[', ']'}, new byte[0]));
+        //When
+        ResultActions response = mockMvc.perform(get("/api/employees/snapshot")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"s-abc\""));
+
+        //Then
+        response.andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    public void givenLimitAboveMaximum_whenGetAllEmployees_thenLimitIsCapped() throws Exception {
+        //Given
+        given(employeeService.getEmployees(0L, 500))
+                .willReturn(new EmployeePage(List.of(), null));
+        //When
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("limit", "1000000"));
+
+        //Then
+        response.andExpect(status().isOk());
+        verify(employeeService).getEmployees(0L, 500);
+    }
+
+    @Test
+    public void givenEmployees_whenExportEmployees_thenStreamOneJsonLinePerEmployee() throws Exception {
+        //Given
+        List<Employee> employees = List.of(
+                Employee.builder()
+                        .id(1L)
+                        .firstName("Vinod")
+                        .lastName("Chattergee")
+                        .email("Vinod@gmail.com")
+                        .build(),
+                Employee.builder()
+                        .id(2L)
+                        .firstName("Gautham")
+                        .lastName("Vinod")
+                        .email("Gautham@gmail.com")
+                        .build()
+        );
+        given(employeeService.exportEmployees(any()))
+                .willAnswer((invocation) -> {
+                    Consumer<Employee> consumer = invocation.getArgument(0);
+                    employees.forEach(consumer);
+                    return (long) employees.size();
+                });
+        //When
+        MvcResult result = mockMvc.perform(get("/api/employees/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //Then
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        objectMapper.writeValueAsString(employees.get(0)) + "\n"
+                                + objectMapper.writeValueAsString(employees.get(1)) + "\n"));
+    }
+
     @Test
     public void givenEmployeeId_whenGetEmployeeByID_thenReturnEmployee() throws Exception {
         //Given
@@ -118,6 +542,82 @@ public class EmployeeControllerTests {
 
     }
 
+    @Test
+    public void givenMatchingETag_whenGetEmployeeByID_thenReturnNotModified() throws Exception {
+        //Given
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .id(employeeId)
+                .firstName("Vinod")
+                .lastName("Chattergee")
+                .email("Vinod@gmail.com")
+                .version(3L)
+                .build();
+
+        given(employeeService.getEmployeeById(employeeId))
+                .willReturn(Optional.of(employee));
+        String eTag = mockMvc.perform(get("/api/employees/{id}", employeeId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"1-3\""))
+                .andReturn().getResponse().getHeader("ETag");
+        //When
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId)
+                .header("If-None-Match", eTag));
+
+        //Then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void givenStaleETag_whenGetEmployeeByID_thenReturnEmployee() throws Exception {
+        //Given
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .id(employeeId)
+                .firstName("Vinod")
+                .lastName("Chattergee")
+                .email("Vinod@gmail.com")
+                .version(4L)
+                .build();
+
+        given(employeeService.getEmployeeById(employeeId))
+                .willReturn(Optional.of(employee));
+        //When
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId)
+                .header("If-None-Match", "W/\"1-3\""));
+
+        //Then
+        response.andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"1-4\""))
+                .andExpect(jsonPath("$.version", is(4)));
+    }
+
+    @Test
+    public void givenUnchangedPage_whenGetAllEmployeesWithETag_thenReturnNotModified() throws Exception {
+        //Given
+        List<Employee> employees = List.of(
+                Employee.builder()
+                        .id(1L)
+                        .firstName("Vinod")
+                        .lastName("Chattergee")
+                        .email("Vinod@gmail.com")
+                        .build());
+        given(employeeService.getEmployees(0L, 50))
+                .willReturn(new EmployeePage(employees, null));
+        String eTag = mockMvc.perform(get("/api/employees"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        //When
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .header("If-None-Match", eTag));
+
+        //Then
+        response.andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     public void givenWrongEmployeeId_whenGetEmployeeByID_thenReturnNotFound() throws Exception {
         //Given
@@ -172,8 +672,8 @@ public class EmployeeControllerTests {
         response.andDo(MockMvcResultHandlers.print())
                 .andExpect(status().isOk()).andExpect(jsonPath("$.firstName", is(updatedEmployee.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(updatedEmployee.getLastName())))
-                .andExpect(jsonPath("$.email", is(updatedEmployee.getEmail())));
-        ;
+                .andExpect(jsonPath("$.email", is(updatedEmployee.getEmail())))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
 
     }
 
@@ -212,11 +712,62 @@ public class EmployeeControllerTests {
 
     }
 
+    @Test
+    public void givenEmployeePatch_whenPatchEmployee_thenReturnOk() throws Exception {
+        //Given
+        long employeeId = 1L;
+        EmployeePatch employeePatch = EmployeePatch.builder()
+                .email("Vinodchattergee@gmail.com")
+                .build();
+        given(employeeService.patchEmployee(anyLong(), any(EmployeePatch.class)))
+                .willReturn(true);
+
+        //When
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employeePatch)));
+
+        //Then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk());
+        verify(employeeService, never()).getEmployeeById(anyLong());
+    }
+
+    @Test
+    public void givenUnknownEmployeeId_whenPatchEmployee_thenReturnNotFound() throws Exception {
+        //Given
+        long employeeId = 1L;
+        given(employeeService.patchEmployee(anyLong(), any(EmployeePatch.class)))
+                .willReturn(false);
+
+        //When
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Raj\"}"));
+
+        //Then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void givenEmptyPatch_whenPatchEmployee_thenReturnBadRequest() throws Exception {
+        //When
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"));
+
+        //Then
+        response.andExpect(status().isBadRequest());
+        verify(employeeService, never()).patchEmployee(anyLong(), any(EmployeePatch.class));
+    }
+
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenDeleteTheEmployee() throws Exception {
         //Given
         long employeeId = 1L;
-        willDoNothing().given(employeeService).deleteEmployeeById(employeeId);// for mpcking void methed we shud use willDoNothing
+        given(employeeService.deleteEmployeeById(employeeId))
+                .willReturn(true);
 
         //When
         ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId));
@@ -225,4 +776,111 @@ public class EmployeeControllerTests {
         response.andDo(MockMvcResultHandlers.print())
                 .andExpect(status().isOk());
     }
+
+    @Test
+    public void givenUnknownEmployeeId_whenDeleteEmployee_thenReturnNotFound() throws Exception {
+        //Given
+        long employeeId = 1L;
+        given(employeeService.deleteEmployeeById(employeeId))
+                .willReturn(false);
+
+        //When
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId));
+
+        //Then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenReturnDeletedCount() throws Exception {
+        //Given
+        given(employeeService.deleteEmployeesByIds(Set.of(1L, 2L, 3L)))
+                .willReturn(2);
+
+        //When
+        ResultActions response = mockMvc.perform(delete("/api/employees")
+                .param("ids", "1,2,3,3"));
+
+        //Then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested", is(3)))
+                .andExpect(jsonPath("$.deleted", is(2)));
+    }
+
+    @Test
+    public void givenEmployeeIds_whenGetEmployeesByIds_thenReturnEmployeesAsynchronously() throws Exception {
+        //Given
+        List<Employee> employees = List.of(
+                Employee.builder().id(3L).firstName("Vinod").lastName("Chattergee").email("Vinod@gmail.com").build(),
+                Employee.builder().id(1L).firstName("Gautham").lastName("Vinod").email("Gautham@gmail.com").build());
+        given(asyncEmployeeService.getEmployeesByIds(Set.of(3L, 1L, 7L)))
+                .willReturn(CompletableFuture.completedFuture(employees));
+
+        //When
+        MvcResult result = mockMvc.perform(get("/api/employees").param("ids", "3,1,7,3"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //Then
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].id", is(3)))
+                .andExpect(jsonPath("$[1].id", is(1)));
+        verify(employeeService, never()).getEmployeeById(anyLong());
+    }
+
+    @Test
+    public void givenSlowLookups_whenGetEmployeesByIdsTimesOut_thenReturn503AndCancelLookups() throws Exception {
+        //Given
+        CompletableFuture<List<Employee>> lookups = new CompletableFuture<>();
+        given(asyncEmployeeService.getEmployeesByIds(Set.of(1L))).willReturn(lookups);
+        MvcResult result = mockMvc.perform(get("/api/employees").param("ids", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //When
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(null);
+        }
+
+        //Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable());
+        assertThat(lookups).isCancelled();
+    }
+
+    @Test
+    public void givenIdsAndFields_whenGetEmployees_thenReturn400() throws Exception {
+        //When
+        ResultActions response = mockMvc.perform(get("/api/employees").param("ids", "1,2").param("fields", "email"));
+
+        //Then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("fields cannot be combined with ids"));
+        verify(asyncEmployeeService, never()).getEmployeesByIds(anyCollection());
+        verify(employeeService, never()).getEmployeeFields(anyCollection(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void givenBusyAsyncService_whenGetEmployeesByIds_thenReturn503() throws Exception {
+        //Given
+        given(asyncEmployeeService.getEmployeesByIds(Set.of(1L)))
+                .willReturn(CompletableFuture.failedFuture(new EmployeeServiceBusyException(new RejectedExecutionException())));
+
+        //When
+        MvcResult result = mockMvc.perform(get("/api/employees").param("ids", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //Then
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isServiceUnavailable());
+    }
 }
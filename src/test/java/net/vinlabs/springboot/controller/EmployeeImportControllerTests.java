@@ -0,0 +1,106 @@
+package net.vinlabs.springboot.controller;
+
+import net.vinlabs.springboot.dto.EmployeeImportError;
+import net.vinlabs.springboot.dto.EmployeeImportStatus;
+import net.vinlabs.springboot.exception.ImportQueueFullException;
+import net.vinlabs.springboot.service.EmployeeImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EmployeeImportController.class)
+public class EmployeeImportControllerTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private EmployeeImportService employeeImportService;
+
+    @Test
+    public void givenCsvUpload_whenStartImport_thenAcceptedWithJobLocation() throws Exception {
+        //Given
+        String csv = "firstName,lastName,email\nVinod,Chattergee,vinod@gmail.com\n";
+        String[] received = new String[1];
+        given(employeeImportService.startImport(any(Path.class)))
+                .willAnswer(invocation -> {
+                    received[0] = Files.readString(invocation.getArgument(0));
+                    return new EmployeeImportStatus("job-1", EmployeeImportStatus.State.QUEUED, null, null,
+                            0, 0, 0, List.of(), null);
+                });
+        //When
+        ResultActions response = mockMvc.perform(multipart("/api/employees/_import")
+                .file(new MockMultipartFile("file", "employees.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8))));
+
+        //Then
+        response.andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/employees/_import/job-1"))
+                .andExpect(jsonPath("$.state", is("QUEUED")));
+        assertThat(received[0]).isEqualTo(csv);
+    }
+
+    @Test
+    public void givenFullImportQueue_whenStartImport_thenServiceUnavailableAndFileDeleted() throws Exception {
+        //Given
+        Path[] received = new Path[1];
+        given(employeeImportService.startImport(any(Path.class)))
+                .willAnswer(invocation -> {
+                    received[0] = invocation.getArgument(0);
+                    throw new ImportQueueFullException(10);
+                });
+        //When
+        ResultActions response = mockMvc.perform(multipart("/api/employees/_import")
+                .file(new MockMultipartFile("file", "employees.csv", "text/csv", "firstName".getBytes(StandardCharsets.UTF_8))));
+
+        //Then
+        response.andExpect(status().isServiceUnavailable());
+        assertThat(received[0]).doesNotExist();
+    }
+
+    @Test
+    public void givenJobId_whenGetImport_thenReturnProgressAndErrors() throws Exception {
+        //Given
+        given(employeeImportService.getImport("job-1"))
+                .willReturn(Optional.of(new EmployeeImportStatus("job-1", EmployeeImportStatus.State.RUNNING,
+                        Instant.now(), null, 1500, 1499, 1,
+                        List.of(new EmployeeImportError(7, "The employee with the given email already exists : a@b.c")),
+                        null)));
+        //When
+        ResultActions response = mockMvc.perform(get("/api/employees/_import/{jobId}", "job-1"));
+
+        //Then
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.processedRows", is(1500)))
+                .andExpect(jsonPath("$.errors[0].line", is(7)));
+    }
+
+    @Test
+    public void givenUnknownJobId_whenGetImport_thenReturnNotFound() throws Exception {
+        //Given
+        given(employeeImportService.getImport("missing")).willReturn(Optional.empty());
+        //When
+        ResultActions response = mockMvc.perform(get("/api/employees/_import/{jobId}", "missing"));
+
+        //Then
+        response.andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,166 @@
+package net.vinlabs.springboot.controller;
+
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.repository.ReactiveEmployeeRepository;
+import net.vinlabs.springboot.service.ReactiveEmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+
+// JPA creates the schema over JDBC, the reactive API reads and writes the same in-memory database over R2DBC;
+// the test context picks its web environment before profile properties are read, hence web-application-type here
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.datasource.url=jdbc:h2:mem:reactive-tests;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-tests;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "employees.page.default-size=2"
+})
+@ActiveProfiles("reactive")
+public class ReactiveEmployeeControllerIntegrationTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private ReactiveEmployeeRepository employeeRepository;
+    @SpyBean
+    private ReactiveEmployeeService employeeService;
+
+    @AfterEach
+    public void cleanup() {
+        employeeRepository.deleteAll().block();
+    }
+
+    @DisplayName("An employee is created, read, updated and deleted through the reactive API")
+    @Test
+    public void givenEmployee_whenCrudOperations_thenSameContractAsServletApi() {
+        //Given
+        Employee employee = create("Vinod", "Chattergee", "Vinod@Gmail.com ");
+
+        //When //Then
+        assertThat(employee.getId()).isPositive();
+        assertThat(employeeRepository.findById(employee.getId()).block().getEmailNormalized()).isEqualTo("vinod@gmail.com");
+
+        webTestClient.get().uri("/api/employees/{id}", employee.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "W/\"" + employee.getId() + "-" + employee.getVersion() + "\"")
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("Vinod");
+
+        Employee updatedEmployee = webTestClient.put().uri("/api/employees/{id}", employee.getId())
+                .bodyValue(Employee.builder().firstName("Nisha").lastName("Vinod").email("nisha@gmail.com").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .expectBody(Employee.class)
+                .returnResult().getResponseBody();
+        assertThat(updatedEmployee.getFirstName()).isEqualTo("Nisha");
+        assertThat(updatedEmployee.getVersion()).isEqualTo(employee.getVersion() + 1);
+
+        webTestClient.delete().uri("/api/employees/{id}", employee.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("The employee is deleted successfully");
+        webTestClient.get().uri("/api/employees/{id}", employee.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+        webTestClient.delete().uri("/api/employees/{id}", employee.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @DisplayName("A second employee with the same email is rejected with 409")
+    @Test
+    public void givenExistingEmail_whenCreateEmployee_thenConflict() {
+        //Given
+        create("Vinod", "Chattergee", "vinod@gmail.com");
+
+        //When //Then
+        webTestClient.post().uri("/api/employees")
+                .bodyValue(Employee.builder().firstName("Nisha").lastName("Vinod").email("VINOD@gmail.com").build())
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @DisplayName("A PUT whose read is overtaken by another update is rejected with 409")
+    @Test
+    public void givenStaleVersion_whenUpdateEmployee_thenConflict() {
+        //Given
+        Employee employee = create("Vinod", "Chattergee", "vinod@gmail.com");
+        Employee staleEmployee = employeeRepository.findById(employee.getId()).block();
+        webTestClient.put().uri("/api/employees/{id}", employee.getId())
+                .bodyValue(Employee.builder().firstName("Nisha").lastName("Vinod").email("nisha@gmail.com").build())
+                .exchange()
+                .expectStatus().isOk();
+        doReturn(Mono.just(staleEmployee)).when(employeeService).getEmployeeById(employee.getId());
+
+        //When //Then
+        webTestClient.put().uri("/api/employees/{id}", employee.getId())
+                .bodyValue(Employee.builder().firstName("Ram").lastName("Kumar").email("ram@gmail.com").build())
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectBody(String.class).isEqualTo("The employee was modified concurrently, retry the update");
+        assertThat(employeeRepository.findById(employee.getId()).block().getFirstName()).isEqualTo("Nisha");
+    }
+
+    @DisplayName("The list is keyset paged with X-Next-Cursor and fully streamed as NDJSON by the export")
+    @Test
+    public void givenEmployees_whenListAndExport_thenPagedAndStreamed() {
+        //Given
+        Employee first = create("Vinod", "Chattergee", "vinod@gmail.com");
+        Employee second = create("Nisha", "Vinod", "nisha@gmail.com");
+        Employee third = create("Ram", "Kumar", "ram@gmail.com");
+
+        //When //Then
+        webTestClient.get().uri("/api/employees")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(EmployeeController.NEXT_CURSOR_HEADER, String.valueOf(second.getId()))
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].id").isEqualTo(first.getId());
+
+        webTestClient.get().uri("/api/employees?after={after}", second.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(EmployeeController.NEXT_CURSOR_HEADER)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].id").isEqualTo(third.getId());
+
+        List<Employee> exported = webTestClient.get().uri("/api/employees/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Employee.class)
+                .returnResult().getResponseBody();
+        assertThat(exported).extracting(Employee::getId).containsExactly(first.getId(), second.getId(), third.getId());
+    }
+
+    private Employee create(String firstName, String lastName, String email) {
+        return webTestClient.post().uri("/api/employees")
+                .bodyValue(Employee.builder().firstName(firstName).lastName(lastName).email(email).build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Employee.class)
+                .returnResult().getResponseBody();
+    }
+}
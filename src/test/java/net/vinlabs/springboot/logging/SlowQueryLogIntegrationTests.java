@@ -0,0 +1,39 @@
+package net.vinlabs.springboot.logging;
+
+import net.vinlabs.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "employees.sql-log.slow-threshold=0ms")
+@AutoConfigureTestDatabase
+@ExtendWith(OutputCaptureExtension.class)
+public class SlowQueryLogIntegrationTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @DisplayName("Repository statements reach the SQL log with the calling method and bound parameters")
+    @Test
+    public void givenZeroThreshold_whenRepositoryQueried_thenLogNamesMethodAndParameters(CapturedOutput output)
+            throws InterruptedException {
+        //When
+        employeeRepository.findByEmail("nobody@gmail.com");
+
+        //Then - written by the async appender, so give its worker a moment
+        for (int i = 0; i < 50 && !output.getOut().contains("nobody@gmail.com"); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(output.getOut())
+                .contains("slow query")
+                .contains("from EmployeeRepository.findByEmail")
+                .contains("nobody@gmail.com");
+    }
+}
@@ -0,0 +1,92 @@
+package net.vinlabs.springboot.logging;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class SlowQueryLogListenerTests {
+    @Mock
+    private Logger logger;
+
+    private EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+
+    @AfterEach
+    public void cleanup() {
+        database.shutdown();
+    }
+
+    @DisplayName("Statements over the threshold are logged with their parameters")
+    @Test
+    public void givenZeroThreshold_whenQuery_thenLogSlowQueryWithParameters() {
+        //Given
+        given(logger.isWarnEnabled()).willReturn(true);
+        JdbcTemplate jdbcTemplate = proxiedJdbcTemplate(new SlowQueryLogListener(logger, Duration.ZERO, 0));
+
+        //When
+        jdbcTemplate.queryForObject("select ?", String.class, "vinod@gmail.com");
+
+        //Then
+        verify(logger).warn(eq("slow query {} ms from {}: {}"), any(), eq("-"), contains("vinod@gmail.com"));
+    }
+
+    @DisplayName("Fast statements are not logged when sampling is off")
+    @Test
+    public void givenHighThresholdAndNoSampling_whenQuery_thenNothingIsLogged() {
+        //Given
+        JdbcTemplate jdbcTemplate = proxiedJdbcTemplate(new SlowQueryLogListener(logger, Duration.ofMinutes(1), 0));
+
+        //When
+        jdbcTemplate.queryForObject("select ?", String.class, "vinod@gmail.com");
+
+        //Then
+        verify(logger, never()).warn(anyString(), any(), any(), any());
+        verify(logger, never()).info(anyString(), any(), any(), any());
+    }
+
+    @DisplayName("Sampled statements name the repository method that issued them")
+    @Test
+    public void givenFullSampling_whenQueryInsideRepositoryMethod_thenLogSampledQueryWithCaller() {
+        //Given
+        given(logger.isInfoEnabled()).willReturn(true);
+        JdbcTemplate jdbcTemplate = proxiedJdbcTemplate(new SlowQueryLogListener(logger, Duration.ofMinutes(1), 1.0));
+
+        //When
+        String previous = RepositoryMethodContext.enter("EmployeeRepository.findByEmail");
+        try {
+            jdbcTemplate.queryForObject("select ?", String.class, "vinod@gmail.com");
+        } finally {
+            RepositoryMethodContext.restore(previous);
+        }
+
+        //Then
+        verify(logger).info(eq("sampled query {} ms from {}: {}"), any(), eq("EmployeeRepository.findByEmail"),
+                contains("vinod@gmail.com"));
+    }
+
+    private JdbcTemplate proxiedJdbcTemplate(SlowQueryLogListener listener) {
+        return new JdbcTemplate(ProxyDataSourceBuilder.create(database).listener(listener).build());
+    }
+}
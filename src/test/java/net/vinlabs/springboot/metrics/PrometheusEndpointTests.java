@@ -0,0 +1,53 @@
+package net.vinlabs.springboot.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// keeps Hikari in front of H2 (an embedded replacement database would bypass the pool metrics)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:prometheus;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class PrometheusEndpointTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DisplayName("Controller, service, repository, pool, concurrency limit and bulkhead metrics are scraped from /actuator/prometheus")
+    @Test
+    public void givenApiCalls_whenScrapePrometheus_thenLayerMetricsArePresent() throws Exception {
+        //Given
+        mockMvc.perform(get("/api/employees/{id}", 42L))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/employees"))
+                .andExpect(status().isOk());
+
+        //When
+        //Then
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("uri=\"/api/employees/{id}\"")))
+                .andExpect(content().string(containsString("employees_service_calls_seconds_bucket{")))
+                .andExpect(content().string(containsString("method=\"findByIdGreaterThanOrderByIdAsc\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket{")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds_bucket{")))
+                .andExpect(content().string(containsString("cache_load_duration_seconds_count{")))
+                .andExpect(content().string(containsString("employees_concurrency_limit{operation=\"read\"")))
+                .andExpect(content().string(containsString("employees_concurrency_in_flight{operation=\"write\"")))
+                .andExpect(content().string(containsString("employees_bulkhead_available{operation=\"point-read\"")));
+    }
+}
@@ -0,0 +1,82 @@
+package net.vinlabs.springboot.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.vinlabs.springboot.exception.DuplicateEmailException;
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.repository.EmployeeRepository;
+import net.vinlabs.springboot.service.EmployeeService;
+import net.vinlabs.springboot.service.impl.EmployeeServiceImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class ServiceMetricsAspectTests {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private MeterRegistry meterRegistry;
+    private EmployeeService employeeService;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new EmployeeServiceImpl(employeeRepository, eventPublisher));
+        proxyFactory.addAspect(new ServiceMetricsAspect(meterRegistry));
+        employeeService = proxyFactory.getProxy();
+    }
+
+    @DisplayName("Service calls are timed per method")
+    @Test
+    public void givenServiceCall_whenInvoked_thenTimerIsRecorded() {
+        //Given
+        given(employeeRepository.findById(1L)).willReturn(Optional.empty());
+        //When
+        employeeService.getEmployeeById(1L);
+        employeeService.getEmployeeById(1L);
+
+        //Then
+        assertThat(meterRegistry.get(ServiceMetricsAspect.CALLS)
+                .tags("class", "EmployeeServiceImpl", "method", "getEmployeeById", "exception", "none")
+                .timer().count()).isEqualTo(2);
+    }
+
+    @DisplayName("Failing service calls are counted as errors")
+    @Test
+    public void givenFailingServiceCall_whenInvoked_thenErrorIsCounted() {
+        //Given
+        Employee employee = Employee.builder()
+                .firstName("Vinod")
+                .lastName("Vinod")
+                .email("Vinod@gmail,com")
+                .build();
+        given(employeeRepository.saveAndFlush(any(Employee.class)))
+                .willThrow(new DuplicateEmailException(employee.getEmail()));
+        //When
+        Assertions.assertThrows(DuplicateEmailException.class, () -> employeeService.saveEmployee(employee));
+
+        //Then
+        assertThat(meterRegistry.get(ServiceMetricsAspect.ERRORS)
+                .tags("method", "saveEmployee", "exception", "DuplicateEmailException")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(ServiceMetricsAspect.CALLS)
+                .tags("method", "saveEmployee", "exception", "DuplicateEmailException")
+                .timer().count()).isEqualTo(1);
+    }
+}
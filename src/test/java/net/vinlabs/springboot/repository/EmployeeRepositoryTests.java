@@ -1,21 +1,33 @@
 package net.vinlabs.springboot.repository;
 
+import net.vinlabs.springboot.dto.EmployeePatch;
+import net.vinlabs.springboot.dto.EmployeeSummary;
 import net.vinlabs.springboot.model.Employee;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import org.hibernate.Session;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.PageRequest;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @DataJpaTest
 public class EmployeeRepositoryTests {
     @Autowired
     private EmployeeRepository employeeRepository;
+    @Autowired
+    private EntityManager entityManager;
 
     // JUnit test for save employee operation
     //@DisplayName("JUnit test for save employee operation")
@@ -66,6 +78,114 @@ public class EmployeeRepositoryTests {
 
     }
 
+    // JUnit test for keyset page operation
+    @DisplayName("JUnit test for keyset page operation")
+    @Test
+    public void givenEmployeesList_whenFindByIdGreaterThan_thenReturnNextPageInIdOrder(){
+        // given - precondition or setup
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("Vinod")
+                .lastName("Vinod")
+                .email("Vinod@gmail,com")
+                .build());
+        Employee employee1 = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .lastName("Cena")
+                .email("cena@gmail,com")
+                .build());
+        Employee employee2 = employeeRepository.save(Employee.builder()
+                .firstName("Gautham")
+                .lastName("Vinod")
+                .email("Gautham@gmail,com")
+                .build());
+
+        // when -  action or the behaviour that we are going test
+        List<Employee> employeeList = employeeRepository.findByIdGreaterThanOrderByIdAsc(employee.getId(), PageRequest.of(0, 1));
+
+        // then - verify the output
+        assertThat(employeeList).extracting(Employee::getId).containsExactly(employee1.getId());
+        assertThat(employeeRepository.findByIdGreaterThanOrderByIdAsc(employee1.getId(), PageRequest.of(0, 5)))
+                .extracting(Employee::getId).containsExactly(employee2.getId());
+    }
+
+    // JUnit test for scroll all operation
+    @DisplayName("JUnit test for scroll all operation")
+    @Test
+    public void givenEmployeesList_whenScrollAll_thenVisitEveryEmployeeDetached(){
+        // given - precondition or setup
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("Vinod")
+                .lastName("Vinod")
+                .email("Vinod@gmail,com")
+                .build());
+        Employee employee1 = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .lastName("Cena")
+                .email("cena@gmail,com")
+                .build());
+        employeeRepository.flush();
+        entityManager.clear();
+
+        // when -  action or the behaviour that we are going test
+        List<Employee> visited = new ArrayList<>();
+        long count = employeeRepository.scrollAll(visited::add);
+
+        // then - verify the output
+        assertThat(count).isEqualTo(2);
+        assertThat(visited).extracting(Employee::getId).containsExactly(employee.getId(), employee1.getId());
+        assertThat(visited).noneMatch(entityManager::contains);
+    }
+
+    // JUnit test for batch insert operation
+    @DisplayName("JUnit test for batch insert operation")
+    @Test
+    public void givenEmployeesList_whenBatchInsert_thenAssignGeneratedIds(){
+        // given - precondition or setup
+        List<Employee> employees = List.of(
+                Employee.builder()
+                        .firstName("Vinod")
+                        .lastName("Vinod")
+                        .email("Vinod@gmail,com")
+                        .build(),
+                Employee.builder()
+                        .firstName("John")
+                        .lastName("Cena")
+                        .email("cena@gmail,com")
+                        .build());
+
+        // when -  action or the behaviour that we are going test
+        employeeRepository.batchInsert(employees);
+
+        // then - verify the output
+        assertThat(employees).allMatch(e -> e.getId() > 0);
+        assertThat(employeeRepository.findById(employees.get(1).getId()).get().getEmail()).isEqualTo("cena@gmail,com");
+        assertThat(employeeRepository.findExistingNormalizedEmails(List.of("vinod@gmail,com", "other@gmail,com")))
+                .containsExactly("vinod@gmail,com");
+    }
+
+    // JUnit test for email uniqueness constraint
+    @DisplayName("JUnit test for email uniqueness constraint")
+    @Test
+    public void givenExistingEmailInOtherCase_whenSave_thenThrowDataIntegrityViolation(){
+        // given - precondition or setup
+        employeeRepository.saveAndFlush(Employee.builder()
+                .firstName("Vinod")
+                .lastName("Vinod")
+                .email("Vinod@gmail,com")
+                .build());
+        Employee employee = Employee.builder()
+                .firstName("John")
+                .lastName("Cena")
+                .email(" vinod@GMAIL,com ")
+                .build();
+
+        // when -  action or the behaviour that we are going test
+        // then - verify the output
+        assertThatThrownBy(() -> employeeRepository.saveAndFlush(employee))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining(Employee.EMAIL_INDEX.toUpperCase());
+    }
+
     // JUnit test for get employee by id operation
     @DisplayName("JUnit test for get employee by id operation")
     @Test
@@ -127,6 +247,71 @@ public class EmployeeRepositoryTests {
         assertThat(updatedEmployee.getFirstName()).isEqualTo("Ram");
     }
 
+    // JUnit test for version increment on update
+    @DisplayName("JUnit test for version increment on update")
+    @Test
+    public void givenEmployeeObject_whenUpdateAndFlush_thenVersionIsIncremented(){
+        // given - precondition or setup
+        Employee employee = employeeRepository.saveAndFlush(Employee.builder()
+                .firstName("Vinod")
+                .lastName("Chattergee")
+                .email("Vinod@gmail,com")
+                .build());
+        long initialVersion = employee.getVersion();
+
+        // when -  action or the behaviour that we are going test
+        employee.setFirstName("Ram");
+        Employee updatedEmployee = employeeRepository.saveAndFlush(employee);
+
+        // then - verify the output
+        assertThat(updatedEmployee.getVersion()).isEqualTo(initialVersion + 1);
+    }
+
+    // JUnit test for partial update operation
+    @DisplayName("JUnit test for partial update operation")
+    @Test
+    public void givenEmployeeObject_whenUpdateFields_thenOnlySuppliedColumnsChange(){
+        // given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("Vinod")
+                .lastName("Chattergee")
+                .email("Vinod@gmail,com")
+                .build();
+        employeeRepository.saveAndFlush(employee);
+        EmployeePatch patch = EmployeePatch.builder()
+                .email("Ram@gmail.com")
+                .build();
+
+        // when -  action or the behaviour that we are going test
+        int updated = employeeRepository.updateFields(employee.getId(), patch);
+        entityManager.clear();
+
+        // then - verify the output
+        Employee updatedEmployee = employeeRepository.findById(employee.getId()).get();
+        assertThat(updated).isEqualTo(1);
+        assertThat(updatedEmployee.getEmail()).isEqualTo("Ram@gmail.com");
+        assertThat(updatedEmployee.getEmailNormalized()).isEqualTo("ram@gmail.com");
+        assertThat(updatedEmployee.getFirstName()).isEqualTo("Vinod");
+        assertThat(updatedEmployee.getLastName()).isEqualTo("Chattergee");
+        assertThat(updatedEmployee.getVersion()).isEqualTo(employee.getVersion() + 1);
+    }
+
+    // JUnit test for partial update operation with an unknown id
+    @DisplayName("JUnit test for partial update operation with an unknown id")
+    @Test
+    public void givenUnknownId_whenUpdateFields_thenNoRowIsAffected(){
+        // given - precondition or setup
+        EmployeePatch patch = EmployeePatch.builder()
+                .firstName("Ram")
+                .build();
+
+        // when -  action or the behaviour that we are going test
+        int updated = employeeRepository.updateFields(Long.MAX_VALUE, patch);
+
+        // then - verify the output
+        assertThat(updated).isZero();
+    }
+
     // JUnit test for delete employee operation
     @DisplayName("JUnit test for delete employee operation")
     @Test
@@ -147,6 +332,57 @@ public class EmployeeRepositoryTests {
         assertThat(employeeOptional).isEmpty();
     }
 
+    // JUnit test for single statement delete operation
+    @DisplayName("JUnit test for single statement delete operation")
+    @Test
+    public void givenEmployeeObject_whenDeleteByIdReturningCount_thenReturnAffectedRows(){
+        // given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("Vinod")
+                .lastName("Chattergee")
+                .email("Vinod@gmail,com")
+                .build();
+        employeeRepository.saveAndFlush(employee);
+        entityManager.clear();
+
+        // when -  action or the behaviour that we are going test
+        int deleted = employeeRepository.deleteByIdReturningCount(employee.getId());
+        int deletedAgain = employeeRepository.deleteByIdReturningCount(employee.getId());
+
+        // then - verify the output
+        assertThat(deleted).isEqualTo(1);
+        assertThat(deletedAgain).isZero();
+        assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+    }
+
+    // JUnit test for chunked bulk delete operation
+    @DisplayName("JUnit test for chunked bulk delete operation")
+    @Test
+    public void givenEmployeesList_whenDeleteByIds_thenRemoveOnlyThoseEmployees(){
+        // given - precondition or setup
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            employees.add(Employee.builder()
+                    .firstName("Vinod" + i)
+                    .lastName("Chattergee")
+                    .email("vinod" + i + "@gmail.com")
+                    .build());
+        }
+        employeeRepository.batchInsert(employees);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 1100; i++) {
+            ids.add(employees.get(i).getId());
+        }
+        ids.add(Long.MAX_VALUE);
+
+        // when -  action or the behaviour that we are going test
+        int deleted = employeeRepository.deleteByIds(ids);
+
+        // then - verify the output
+        assertThat(deleted).isEqualTo(1100);
+        assertThat(employeeRepository.count()).isEqualTo(100);
+    }
+
     // JUnit test for custom query using JPQL with index
     @DisplayName("JUnit test for custom query using JPQL with index")
     @Test
@@ -231,4 +467,106 @@ public class EmployeeRepositoryTests {
         assertThat(savedEmployee).isNotNull();
     }
 
+    // JUnit test for the DTO projection variant of the name lookup
+    @DisplayName("JUnit test for the DTO projection variant of the name lookup")
+    @Test
+    public void givenFirstNameAndLastName_whenFindSummaryByName_thenReturnProjectionNotEntity(){
+        // given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("Vinod")
+                .lastName("Chattergee")
+                .email("Vinod@gmail,com")
+                .build();
+        employeeRepository.save(employee);
+        entityManager.flush();
+        entityManager.clear();
+
+        // when -  action or the behaviour that we are going test
+        EmployeeSummary summary = employeeRepository.findSummaryByName("Vinod", "Chattergee");
+
+        // then - verify the output
+        assertThat(summary.getId()).isEqualTo(employee.getId());
+        assertThat(summary.getEmail()).isEqualTo("Vinod@gmail,com");
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    // JUnit test for the paged namesake search
+    @DisplayName("JUnit test for the paged namesake search")
+    @Test
+    public void givenNamesakes_whenFindByFirstNameAndLastName_thenReturnEveryMatchPagedById(){
+        // given - precondition or setup
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            employees.add(Employee.builder()
+                    .firstName("Vinod")
+                    .lastName("Chattergee")
+                    .email("vinod" + i + "@gmail,com")
+                    .build());
+        }
+        employees.add(Employee.builder()
+                .firstName("Vinod")
+                .lastName("Kumar")
+                .email("kumar@gmail,com")
+                .build());
+        employeeRepository.saveAll(employees);
+
+        // when -  action or the behaviour that we are going test
+        List<Employee> firstPage = employeeRepository.findByFirstNameAndLastNameAndIdGreaterThanOrderByIdAsc(
+                "Vinod", "Chattergee", 0L, PageRequest.of(0, 2));
+        List<Employee> secondPage = employeeRepository.findByFirstNameAndLastNameAndIdGreaterThanOrderByIdAsc(
+                "Vinod", "Chattergee", firstPage.get(1).getId(), PageRequest.of(0, 2));
+
+        // then - verify the output
+        assertThat(firstPage).extracting(Employee::getEmail).containsExactly("vinod0@gmail,com", "vinod1@gmail,com");
+        assertThat(secondPage).extracting(Employee::getEmail).containsExactly("vinod2@gmail,com");
+    }
+
+    // JUnit test that the name lookup is planned on the composite index rather than a table scan
+    @DisplayName("JUnit test that the name lookup uses the (first_name, last_name) index")
+    @Test
+    public void givenLargeTable_whenExplainNameLookup_thenCompositeIndexIsUsed(){
+        // given - precondition or setup
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            employees.add(Employee.builder()
+                    .firstName("First" + i % 1000)
+                    .lastName("Last" + i)
+                    .email("employee" + i + "@gmail,com")
+                    .build());
+        }
+        employeeRepository.batchInsert(employees);
+
+        // when -  action or the behaviour that we are going test
+        String plan = String.valueOf(entityManager.createNativeQuery(
+                "explain select * from employees e where e.first_name = 'First7' and e.last_name = 'Last7007' " +
+                        "and e.id > 0 order by e.id limit 51").getSingleResult());
+
+        // then - verify the output
+        assertThat(plan).containsIgnoringCase(Employee.NAME_INDEX);
+    }
+
+    // JUnit test for the sparse fieldset read
+    @DisplayName("JUnit test for the sparse fieldset read")
+    @Test
+    public void givenEmployees_whenFindFieldsByIdGreaterThan_thenReturnOnlySelectedColumnsWithoutEntities(){
+        // given - precondition or setup
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("Vinod")
+                .lastName("Chattergee")
+                .email("Vinod@gmail,com")
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // when -  action or the behaviour that we are going test
+        List<Map<String, Object>> rows = employeeRepository.findFieldsByIdGreaterThan(List.of("lastName"), 0L, 10);
+
+        // then - verify the output
+        assertThat(rows).containsExactly(Map.of("id", employee.getId(), "lastName", "Chattergee"));
+        assertThat(new ArrayList<>(rows.get(0).keySet())).containsExactly("id", "lastName");
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+        assertThatThrownBy(() -> employeeRepository.findFieldsByIdGreaterThan(List.of("emailNormalized"), 0L, 10))
+                .isInstanceOf(InvalidDataAccessApiUsageException.class);
+    }
+
 }
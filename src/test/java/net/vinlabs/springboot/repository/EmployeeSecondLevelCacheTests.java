@@ -0,0 +1,113 @@
+package net.vinlabs.springboot.repository;
+
+import net.vinlabs.springboot.dto.EmployeePatch;
+import net.vinlabs.springboot.model.Employee;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// every repository call runs in its own transaction and session, so only the second-level cache can serve repeats
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EmployeeSecondLevelCacheTests {
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        employee = employeeRepository.save(Employee.builder()
+                .firstName("Vinod")
+                .lastName("Chattergee")
+                .email("vinod@gmail.com")
+                .build());
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        employeeRepository.deleteAllInBatch();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @DisplayName("JUnit test for repeated findById being served by the entity cache")
+    @Test
+    public void givenSavedEmployee_whenFindByIdTwice_thenSecondCallServedFromSecondLevelCache(){
+        // when -  action or the behaviour that we are going test
+        Optional<Employee> first = employeeRepository.findById(employee.getId());
+        Optional<Employee> second = employeeRepository.findById(employee.getId());
+
+        // then - verify the output
+        assertThat(first).isPresent();
+        assertThat(second.get().getEmail()).isEqualTo("vinod@gmail.com");
+        assertThat(statistics.getDomainDataRegionStatistics(Employee.CACHE_REGION).getMissCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics(Employee.CACHE_REGION).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @DisplayName("JUnit test for repeated findByEmail being served by the query cache")
+    @Test
+    public void givenEmail_whenFindByEmailTwice_thenSecondCallHitsQueryCache(){
+        // when -  action or the behaviour that we are going test
+        employeeRepository.findByEmail("vinod@gmail.com");
+        long statementsAfterFirstCall = statistics.getPrepareStatementCount();
+        Optional<Employee> cached = employeeRepository.findByEmail("vinod@gmail.com");
+
+        // then - verify the output
+        assertThat(cached.get().getId()).isEqualTo(employee.getId());
+        assertThat(statistics.getQueryRegionStatistics(Employee.QUERY_CACHE_REGION).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterFirstCall).isEqualTo(1);
+    }
+
+    @DisplayName("JUnit test for cached name lookups being invalidated by an update")
+    @Test
+    public void givenCachedLookups_whenEmployeeIsPatched_thenFreshValuesAreRead(){
+        // given - precondition or setup
+        assertThat(employeeRepository.findByJPQL("Vinod", "Chattergee")).isNotNull();
+        assertThat(employeeRepository.findById(employee.getId()).get().getLastName()).isEqualTo("Chattergee");
+
+        // when -  action or the behaviour that we are going test
+        employeeRepository.updateFields(employee.getId(), new EmployeePatch(null, "Kumar", null));
+
+        // then - verify the output
+        assertThat(employeeRepository.findByJPQL("Vinod", "Chattergee")).isNull();
+        assertThat(employeeRepository.findByJPQL("Vinod", "Kumar").getId()).isEqualTo(employee.getId());
+        assertThat(employeeRepository.findById(employee.getId()).get().getLastName()).isEqualTo("Kumar");
+        assertThat(statistics.getQueryRegionStatistics(Employee.QUERY_CACHE_REGION).getHitCount()).isZero();
+    }
+
+    @DisplayName("JUnit test for cached misses being invalidated by a JDBC batch insert")
+    @Test
+    public void givenCachedMiss_whenBatchInsert_thenNewEmployeeIsFound(){
+        // given - precondition or setup
+        assertThat(employeeRepository.findByEmail("john@gmail.com")).isEmpty();
+
+        // when -  action or the behaviour that we are going test
+        employeeRepository.batchInsert(List.of(Employee.builder()
+                .firstName("John")
+                .lastName("Cena")
+                .email("john@gmail.com")
+                .build()));
+
+        // then - verify the output
+        assertThat(employeeRepository.findByEmail("john@gmail.com")).isPresent();
+    }
+}
@@ -0,0 +1,172 @@
+package net.vinlabs.springboot.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.vinlabs.springboot.exception.DuplicateEmailException;
+import net.vinlabs.springboot.exception.EmployeeServiceBusyException;
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.service.impl.AsyncEmployeeServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncEmployeeServiceTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AsyncEmployeeServiceImpl asyncEmployeeService;
+
+    @AfterEach
+    public void stop() {
+        asyncEmployeeService.destroy();
+    }
+
+    @DisplayName("Lookups for several ids run at the same time, results keep the order of the ids and skip unknown ones")
+    @Test
+    public void givenSlowLookups_whenGetEmployeesByIds_thenLookedUpInParallel() throws Exception {
+        //Given
+        asyncEmployeeService = new AsyncEmployeeServiceImpl(employeeService, meterRegistry, 3, 10, 3);
+        CountDownLatch allStarted = new CountDownLatch(3);
+        given(employeeService.getEmployeeById(1L)).willAnswer(invocation -> lookup(allStarted, 1L));
+        given(employeeService.getEmployeeById(2L)).willAnswer(invocation -> {
+            allStarted.countDown();
+            allStarted.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+        given(employeeService.getEmployeeById(3L)).willAnswer(invocation -> lookup(allStarted, 3L));
+
+        //When
+        List<Employee> employees = asyncEmployeeService.getEmployeesByIds(List.of(3L, 2L, 1L, 3L)).get(5, TimeUnit.SECONDS);
+
+        //Then
+        assertThat(allStarted.getCount()).isZero();
+        assertThat(employees).extracting(Employee::getId).containsExactly(3L, 1L);
+        assertThat(meterRegistry.get("executor.completed").tag("name", AsyncEmployeeServiceImpl.EXECUTOR_NAME)
+                .functionCounter().count()).isEqualTo(3);
+    }
+
+    @DisplayName("The ids of one request are looked up by at most lookups-per-request tasks")
+    @Test
+    public void givenMoreIdsThanLookupsPerRequest_whenGetEmployeesByIds_thenIdsShareTasks() throws Exception {
+        //Given
+        asyncEmployeeService = new AsyncEmployeeServiceImpl(employeeService, meterRegistry, 3, 10, 2);
+        for (long id = 1; id <= 5; id++) {
+            given(employeeService.getEmployeeById(id)).willReturn(Optional.of(Employee.builder().id(id).build()));
+        }
+
+        //When
+        List<Employee> employees = asyncEmployeeService.getEmployeesByIds(List.of(5L, 4L, 3L, 2L, 1L)).get(5, TimeUnit.SECONDS);
+
+        //Then
+        assertThat(employees).extracting(Employee::getId).containsExactly(5L, 4L, 3L, 2L, 1L);
+        // recorded as each task starts, executor.completed only once it has returned
+        assertThat(meterRegistry.get("executor.idle").tag("name", AsyncEmployeeServiceImpl.EXECUTOR_NAME)
+                .timer().count()).isEqualTo(2);
+    }
+
+    @DisplayName("Cancelling the future of getEmployeesByIds skips the lookups that have not started yet")
+    @Test
+    public void givenCancelledFuture_whenGetEmployeesByIds_thenRemainingLookupsSkipped() throws Exception {
+        //Given
+        asyncEmployeeService = new AsyncEmployeeServiceImpl(employeeService, meterRegistry, 1, 10, 2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeService.getEmployeeById(1L)).willAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+        CompletableFuture<List<Employee>> employees = asyncEmployeeService.getEmployeesByIds(List.of(1L, 2L, 3L, 4L));
+        started.await(5, TimeUnit.SECONDS);
+
+        //When
+        employees.cancel(false);
+        release.countDown();
+
+        //Then
+        // the pool has one thread, so both chunks are done once a later call completes
+        asyncEmployeeService.getEmployeeById(9L).get(5, TimeUnit.SECONDS);
+        verify(employeeService, never()).getEmployeeById(2L);
+        verify(employeeService, never()).getEmployeeById(3L);
+        verify(employeeService, never()).getEmployeeById(4L);
+    }
+
+    @DisplayName("A failed lookup fails getEmployeesByIds at once and skips the lookups that have not started yet")
+    @Test
+    public void givenFailingLookup_whenGetEmployeesByIds_thenFailsAndRemainingLookupsSkipped() throws Exception {
+        //Given
+        asyncEmployeeService = new AsyncEmployeeServiceImpl(employeeService, meterRegistry, 1, 10, 2);
+        given(employeeService.getEmployeeById(1L)).willThrow(new IllegalStateException("database is down"));
+
+        //When //Then
+        assertThatThrownBy(() -> asyncEmployeeService.getEmployeesByIds(List.of(1L, 2L, 3L, 4L)).get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        asyncEmployeeService.getEmployeeById(9L).get(5, TimeUnit.SECONDS);
+        verify(employeeService, never()).getEmployeeById(2L);
+        verify(employeeService, never()).getEmployeeById(3L);
+    }
+
+    @DisplayName("A call that finds the pool and its queue full fails at once with EmployeeServiceBusyException")
+    @Test
+    public void givenFullQueue_whenCall_thenBusy() throws Exception {
+        //Given
+        asyncEmployeeService = new AsyncEmployeeServiceImpl(employeeService, meterRegistry, 1, 1, 4);
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeService.getEmployeeById(1L)).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+        CompletableFuture<Optional<Employee>> running = asyncEmployeeService.getEmployeeById(1L);
+        CompletableFuture<Optional<Employee>> queued = asyncEmployeeService.getEmployeeById(1L);
+
+        //When
+        CompletableFuture<Optional<Employee>> rejected = asyncEmployeeService.getEmployeeById(1L);
+
+        //Then
+        assertThatThrownBy(() -> rejected.getNow(null)).hasCauseInstanceOf(EmployeeServiceBusyException.class);
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEmpty();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEmpty();
+    }
+
+    @DisplayName("Exceptions of the synchronous service complete the future exceptionally")
+    @Test
+    public void givenDuplicateEmail_whenSaveEmployee_thenFutureFails() {
+        //Given
+        Employee employee = Employee.builder().firstName("Vinod").lastName("Chattergee").email("vinod@gmail.com").build();
+        asyncEmployeeService = new AsyncEmployeeServiceImpl(employeeService, meterRegistry, 1, 10, 4);
+        given(employeeService.saveEmployee(employee)).willThrow(new DuplicateEmailException(employee.getEmail()));
+
+        //When //Then
+        assertThatThrownBy(() -> asyncEmployeeService.saveEmployee(employee).get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(DuplicateEmailException.class);
+    }
+
+    // returns only once all three lookups are running, which cannot happen if they run one after another
+    private static Optional<Employee> lookup(CountDownLatch allStarted, long id) throws InterruptedException {
+        allStarted.countDown();
+        allStarted.await(5, TimeUnit.SECONDS);
+        return Optional.of(Employee.builder().id(id).firstName("First" + id).lastName("Last" + id).build());
+    }
+}
@@ -0,0 +1,210 @@
+package net.vinlabs.springboot.service;
+
+import net.vinlabs.springboot.config.CacheConfig;
+import net.vinlabs.springboot.dto.EmployeeBulkResult;
+import net.vinlabs.springboot.exception.DuplicateEmailException;
+import net.vinlabs.springboot.exception.EmployeeServiceBusyException;
+import net.vinlabs.springboot.exception.InvalidEmployeeException;
+import net.vinlabs.springboot.model.Employee;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeCreateCoalescerTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.EMPLOYEES_CACHE);
+    private EmployeeCreateCoalescer coalescer;
+
+    @AfterEach
+    public void stop() {
+        if (coalescer != null) {
+            coalescer.destroy();
+        }
+    }
+
+    @DisplayName("Creates submitted within the window are saved as one batch and each caller gets its own outcome")
+    @Test
+    public void givenCreatesWithinWindow_whenSubmit_thenOneBatchAndPerItemResults() throws Exception {
+        //Given
+        given(employeeService.insertEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            List<EmployeeBulkResult> results = new ArrayList<>();
+            for (int i = 0; i < employees.size(); i++) {
+                Employee employee = employees.get(i);
+                if (employee.getLastName() == null) {
+                    results.add(EmployeeBulkResult.rejected(i, EmployeeBulkResult.Status.INVALID, "firstName and lastName are required"));
+                } else if ("taken@gmail.com".equals(employee.getEmail())) {
+                    results.add(EmployeeBulkResult.rejected(i, EmployeeBulkResult.Status.DUPLICATE_EMAIL, "taken"));
+                } else {
+                    employee.setId(100 + i);
+                    results.add(EmployeeBulkResult.created(i, 100 + i));
+                }
+            }
+            return results;
+        });
+        coalescer = new EmployeeCreateCoalescer(employeeService, cacheManager, 10, Duration.ofMillis(200), 100, 1, Duration.ofSeconds(5));
+
+        //When
+        CompletableFuture<Employee> first = coalescer.submit(Employee.builder().firstName("Vinod").lastName("Chattergee").email("vinod@gmail.com").build());
+        CompletableFuture<Employee> duplicate = coalescer.submit(Employee.builder().firstName("Someone").lastName("Else").email("taken@gmail.com").build());
+        CompletableFuture<Employee> invalid = coalescer.submit(Employee.builder().firstName("NoLastName").build());
+        CompletableFuture<Employee> second = coalescer.submit(Employee.builder().firstName("Nisha").lastName("Vinod").email("nisha@gmail.com").build());
+
+        //Then
+        assertThat(first.get(5, TimeUnit.SECONDS).getId()).isEqualTo(100);
+        assertThat(second.get(5, TimeUnit.SECONDS).getId()).isEqualTo(103);
+        assertThatThrownBy(duplicate::join).hasCauseInstanceOf(DuplicateEmailException.class);
+        assertThatThrownBy(invalid::join).hasCauseInstanceOf(InvalidEmployeeException.class);
+        verify(employeeService, times(1)).insertEmployees(anyList());
+    }
+
+    @DisplayName("A flush evicts only the ids it created from the employees cache")
+    @Test
+    public void givenCachedEntries_whenFlush_thenOnlyCreatedIdsEvicted() {
+        //Given
+        Cache cache = cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        Employee cached = Employee.builder().id(1L).firstName("Vinod").lastName("Chattergee").build();
+        cache.put(1L, cached);
+        // looked up before it existed
+        cache.put(2L, null);
+        given(employeeService.insertEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            employees.get(0).setId(2L);
+            return List.of(EmployeeBulkResult.created(0, 2L));
+        });
+        coalescer = new EmployeeCreateCoalescer(employeeService, cacheManager, 10, Duration.ofMillis(1), 100, 1, Duration.ofSeconds(5));
+
+        //When
+        Employee created = coalescer.create(Employee.builder().firstName("Nisha").lastName("Vinod").build());
+
+        //Then
+        assertThat(created.getId()).isEqualTo(2L);
+        assertThat(cache.get(2L)).isNull();
+        assertThat(cache.get(1L).get()).isSameAs(cached);
+        verify(employeeService, never()).saveEmployees(anyList());
+    }
+
+    @DisplayName("A full batch is flushed without waiting for the window to end")
+    @Test
+    public void givenFullBatch_whenSubmit_thenFlushedBeforeWindowEnds() throws Exception {
+        //Given
+        given(employeeService.insertEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            List<EmployeeBulkResult> results = new ArrayList<>();
+            for (int i = 0; i < employees.size(); i++) {
+                results.add(EmployeeBulkResult.created(i, i + 1));
+            }
+            return results;
+        });
+        coalescer = new EmployeeCreateCoalescer(employeeService, cacheManager, 2, Duration.ofMinutes(1), 100, 1, Duration.ofSeconds(5));
+
+        //When
+        CompletableFuture<Employee> first = coalescer.submit(Employee.builder().firstName("Vinod").lastName("Chattergee").build());
+        CompletableFuture<Employee> second = coalescer.submit(Employee.builder().firstName("Nisha").lastName("Vinod").build());
+
+        //Then
+        assertThat(CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS)).isNull();
+    }
+
+    @DisplayName("A batch that fails as a whole fails every caller in it, create rethrows the cause")
+    @Test
+    public void givenFailingBatch_whenCreate_thenCauseRethrown() {
+        //Given
+        given(employeeService.insertEmployees(anyList())).willThrow(new IllegalStateException("database is down"));
+        coalescer = new EmployeeCreateCoalescer(employeeService, cacheManager, 10, Duration.ofMillis(1), 100, 1, Duration.ofSeconds(5));
+
+        //When //Then
+        assertThatThrownBy(() -> coalescer.create(Employee.builder().firstName("Vinod").lastName("Chattergee").build()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("database is down");
+    }
+
+    @DisplayName("An Error thrown by a flush fails its callers and the flusher keeps serving later creates")
+    @Test
+    public void givenErrorInFlush_whenCreate_thenCallerFailsAndFlusherSurvives() {
+        //Given
+        given(employeeService.insertEmployees(anyList()))
+                .willThrow(new NoClassDefFoundError("org/h2/Driver"))
+                .willReturn(List.of(EmployeeBulkResult.created(0, 1L)));
+        coalescer = new EmployeeCreateCoalescer(employeeService, cacheManager, 10, Duration.ofMillis(1), 100, 1, Duration.ofSeconds(5));
+
+        //When //Then
+        assertThatThrownBy(() -> coalescer.create(Employee.builder().firstName("Vinod").lastName("Chattergee").build()))
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(NoClassDefFoundError.class);
+        assertThat(coalescer.create(Employee.builder().firstName("Nisha").lastName("Vinod").build())).isNotNull();
+    }
+
+    @DisplayName("A create whose flush does not finish within max-wait fails with EmployeeServiceBusyException")
+    @Test
+    public void givenSlowFlush_whenCreate_thenBusyAfterMaxWait() {
+        //Given
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeService.insertEmployees(anyList())).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(EmployeeBulkResult.created(0, 1L));
+        });
+        coalescer = new EmployeeCreateCoalescer(employeeService, cacheManager, 10, Duration.ofMillis(1), 100, 1, Duration.ofMillis(100));
+
+        //When //Then
+        try {
+            assertThatThrownBy(() -> coalescer.create(Employee.builder().firstName("Vinod").lastName("Chattergee").build()))
+                    .isInstanceOf(EmployeeServiceBusyException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @DisplayName("A keyed create answered 503 after max-wait is still written once, and the retry with the key gets it")
+    @Test
+    public void givenSlowFlushWithIdempotencyKey_whenRetried_thenWrittenOnceAndReplayed() {
+        //Given
+        IdempotencyStore idempotencyStore = new IdempotencyStore(100, Duration.ofMinutes(1), Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeService.insertEmployees(anyList())).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            List<Employee> employees = invocation.getArgument(0);
+            employees.get(0).setId(1L);
+            return List.of(EmployeeBulkResult.created(0, 1L));
+        });
+        coalescer = new EmployeeCreateCoalescer(employeeService, cacheManager, 10, Duration.ofMillis(1), 100, 1, Duration.ofMillis(100));
+        Employee employee = Employee.builder().firstName("Vinod").lastName("Chattergee").email("vinod@gmail.com").build();
+        assertThatThrownBy(() -> coalescer.create(() -> idempotencyStore.executeAsync("key-1", "body", () -> coalescer.submit(employee))))
+                .isInstanceOf(EmployeeServiceBusyException.class);
+
+        //When
+        release.countDown();
+        Employee retried = coalescer.create(() -> idempotencyStore.executeAsync("key-1", "body",
+                () -> coalescer.submit(Employee.builder().firstName("Vinod").lastName("Chattergee").email("vinod@gmail.com").build())));
+
+        //Then
+        assertThat(retried.getId()).isEqualTo(1L);
+        verify(employeeService, times(1)).insertEmployees(anyList());
+    }
+}
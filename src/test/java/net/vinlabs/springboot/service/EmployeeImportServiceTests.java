@@ -0,0 +1,131 @@
+package net.vinlabs.springboot.service;
+
+import net.vinlabs.springboot.dto.EmployeeImportError;
+import net.vinlabs.springboot.dto.EmployeeImportStatus;
+import net.vinlabs.springboot.exception.ImportQueueFullException;
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.repository.EmployeeRepository;
+import net.vinlabs.springboot.service.impl.EmployeeImportServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+// small chunks so a file of a few records spans several chunk transactions
+@SpringBootTest(properties = "employees.import.chunk-size=2")
+@AutoConfigureTestDatabase
+public class EmployeeImportServiceTests {
+
+    @Autowired
+    private EmployeeImportService employeeImportService;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @AfterEach
+    public void cleanup() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    @DisplayName("CSV import creates valid rows and reports each rejected one with its line")
+    @Test
+    public void givenCsvWithBadRows_whenImport_thenValidRowsCreatedAndErrorsReported() throws Exception {
+        //Given
+        employeeRepository.save(Employee.builder().firstName("Existing").lastName("Employee").email("taken@gmail.com").build());
+        Path csv = Files.createTempFile("employees-import-test-", ".csv");
+        Files.writeString(csv, "First Name,last_name,Email\r\n"
+                + "Vinod,Chattergee,vinod@gmail.com\r\n"
+                + "\"Nisha, Jr.\",\"Vi\"\"nod\",nisha@gmail.com\r\n"
+                + "Someone,Else,TAKEN@gmail.com\r\n"
+                + "\r\n"
+                + "\"Multi\nLine\",Name,multi@gmail.com\n"
+                + "NoLastName,,nolast@gmail.com\n"
+                + "Short,Row\n"
+                + "Again,Vinod,vinod@gmail.com\n");
+
+        //When
+        EmployeeImportStatus status = employeeImportService.startImport(csv);
+        for (int i = 0; i < 100 && status.getFinishedAt() == null; i++) {
+            Thread.sleep(50);
+            status = employeeImportService.getImport(status.getId()).get();
+        }
+
+        //Then
+        assertThat(status.getState()).isEqualTo(EmployeeImportStatus.State.COMPLETED);
+        assertThat(status.getCreatedRows()).isEqualTo(3);
+        assertThat(status.getRejectedRows()).isEqualTo(4);
+        assertThat(status.getProcessedRows()).isEqualTo(7);
+        assertThat(status.getErrors()).extracting(EmployeeImportError::getLine).containsExactlyInAnyOrder(4L, 8L, 9L, 10L);
+        assertThat(employeeRepository.findByEmail("nisha@gmail.com").get().getFirstName()).isEqualTo("Nisha, Jr.");
+        assertThat(employeeRepository.findByEmail("nisha@gmail.com").get().getLastName()).isEqualTo("Vi\"nod");
+        assertThat(employeeRepository.findByEmail("multi@gmail.com").get().getFirstName()).isEqualTo("Multi\nLine");
+        assertThat(csv).doesNotExist();
+    }
+
+    @DisplayName("CSV import without the required header columns fails the job")
+    @Test
+    public void givenCsvWithoutEmailColumn_whenImport_thenJobFails() throws Exception {
+        //Given
+        Path csv = Files.createTempFile("employees-import-test-", ".csv");
+        Files.writeString(csv, "firstName,lastName\nVinod,Chattergee\n");
+
+        //When
+        EmployeeImportStatus status = employeeImportService.startImport(csv);
+        for (int i = 0; i < 100 && status.getFinishedAt() == null; i++) {
+            Thread.sleep(50);
+            status = employeeImportService.getImport(status.getId()).get();
+        }
+
+        //Then
+        assertThat(status.getState()).isEqualTo(EmployeeImportStatus.State.FAILED);
+        assertThat(status.getFailure()).contains("header");
+        assertThat(employeeRepository.count()).isZero();
+    }
+
+    @DisplayName("An import beyond the running one and the queue capacity is refused and not registered")
+    @Test
+    public void givenFullQueue_whenStartImport_thenRefused() throws Exception {
+        //Given
+        EmployeeService blockedService = mock(EmployeeService.class);
+        CountDownLatch release = new CountDownLatch(1);
+        given(blockedService.saveEmployees(anyList())).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        EmployeeImportServiceImpl importService = new EmployeeImportServiceImpl(blockedService, 1000, 1000, 100, 1, 1);
+        try {
+            EmployeeImportStatus running = importService.startImport(csv("Vinod,Chattergee,vinod@gmail.com\n"));
+            EmployeeImportStatus queued = importService.startImport(csv("Nisha,Vinod,nisha@gmail.com\n"));
+            Path refused = csv("Ram,Kumar,ram@gmail.com\n");
+
+            //When //Then
+            assertThatThrownBy(() -> importService.startImport(refused)).isInstanceOf(ImportQueueFullException.class);
+            assertThat(refused).exists();
+            assertThat(importService.getImport(running.getId())).isPresent();
+            assertThat(importService.getImport(queued.getId())).isPresent();
+            Files.delete(refused);
+        } finally {
+            release.countDown();
+            importService.destroy();
+        }
+    }
+
+    private static Path csv(String rows) throws Exception {
+        Path csv = Files.createTempFile("employees-import-test-", ".csv");
+        Files.writeString(csv, "firstName,lastName,email\n" + rows);
+        return csv;
+    }
+}
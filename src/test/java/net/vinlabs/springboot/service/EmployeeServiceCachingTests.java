@@ -0,0 +1,132 @@
+package net.vinlabs.springboot.service;
+
+import net.vinlabs.springboot.config.CacheConfig;
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.repository.EmployeeRepository;
+import net.vinlabs.springboot.service.impl.EmployeeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(classes = {EmployeeServiceImpl.class, CacheConfig.class}, properties = {
+        "spring.cache.type=caffeine",
+        "spring.cache.cache-names=employees",
+        "spring.cache.caffeine.spec=maximumSize=100,expireAfterWrite=60s,recordStats"
+})
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+public class EmployeeServiceCachingTests {
+
+    @MockBean
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).clear();
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Vinod")
+                .lastName("Vinod")
+                .email("Vinod@gmail,com")
+                .build();
+    }
+
+    @DisplayName("Repeated getEmployeeById calls are served from the cache")
+    @Test
+    public void givenCachedEmployee_whenGetEmployeeById_thenRepositoryIsReadOnce() {
+        //Given
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        //When
+        employeeService.getEmployeeById(1L);
+        Optional<Employee> cached = employeeService.getEmployeeById(1L);
+
+        //Then
+        assertThat(cached).contains(employee);
+        verify(employeeRepository, times(1)).findById(1L);
+        assertThat(nativeCache().stats().hitCount()).isEqualTo(1);
+        assertThat(nativeCache().stats().loadCount()).isEqualTo(1);
+    }
+
+    @DisplayName("Unknown ids are cached as misses")
+    @Test
+    public void givenUnknownId_whenGetEmployeeByIdTwice_thenRepositoryIsReadOnce() {
+        //Given
+        given(employeeRepository.findById(2L)).willReturn(Optional.empty());
+        //When
+        employeeService.getEmployeeById(2L);
+        Optional<Employee> cached = employeeService.getEmployeeById(2L);
+
+        //Then
+        assertThat(cached).isEmpty();
+        verify(employeeRepository, times(1)).findById(2L);
+    }
+
+    @DisplayName("updateEmployee invalidates the cached entry")
+    @Test
+    public void givenCachedEmployee_whenUpdateEmployee_thenNextReadGoesToRepository() {
+        //Given
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+        employeeService.getEmployeeById(1L);
+        //When
+        employeeService.updateEmployee(employee);
+        employeeService.getEmployeeById(1L);
+
+        //Then
+        verify(employeeRepository, times(2)).findById(1L);
+    }
+
+    @DisplayName("deleteEmployeeById invalidates the cached entry")
+    @Test
+    public void givenCachedEmployee_whenDeleteEmployee_thenNextReadGoesToRepository() {
+        //Given
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        employeeService.getEmployeeById(1L);
+        //When
+        employeeService.deleteEmployeeById(1L);
+        given(employeeRepository.findById(1L)).willReturn(Optional.empty());
+
+        //Then
+        assertThat(employeeService.getEmployeeById(1L)).isEmpty();
+        verify(employeeRepository, times(2)).findById(1L);
+    }
+
+    @DisplayName("saveEmployee replaces a cached miss for the new id")
+    @Test
+    public void givenCachedMiss_whenSaveEmployee_thenNewEmployeeIsCached() {
+        //Given
+        given(employeeRepository.findById(1L)).willReturn(Optional.empty());
+        employeeService.getEmployeeById(1L);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+        //When
+        employeeService.saveEmployee(employee);
+
+        //Then
+        assertThat(employeeService.getEmployeeById(1L)).contains(employee);
+        verify(employeeRepository, times(1)).findById(1L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache() {
+        return ((CaffeineCache) cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE)).getNativeCache();
+    }
+}
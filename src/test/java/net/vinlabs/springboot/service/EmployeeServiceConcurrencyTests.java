@@ -0,0 +1,79 @@
+package net.vinlabs.springboot.service;
+
+import net.vinlabs.springboot.exception.DuplicateEmailException;
+import net.vinlabs.springboot.model.Employee;
+import net.vinlabs.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// runs against the embedded database, every create commits on its own like a real POST
+@SpringBootTest
+@AutoConfigureTestDatabase
+public class EmployeeServiceConcurrencyTests {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository.deleteAll();
+    }
+
+    @DisplayName("Parallel creates with the same email, exactly one succeeds")
+    @Test
+    public void givenParallelCreatesWithSameEmail_whenSaveEmployee_thenExactlyOneSucceeds() throws Exception {
+        //Given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Employee>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Employee employee = Employee.builder()
+                    .firstName("Vinod" + i)
+                    .lastName("Chattergee")
+                    .email(i % 2 == 0 ? "Vinod@gmail.com" : "vinod@GMAIL.com")
+                    .build();
+            futures.add(executor.submit(() -> {
+                start.await();
+                return employeeService.saveEmployee(employee);
+            }));
+        }
+
+        //When
+        start.countDown();
+        int created = 0;
+        int conflicts = 0;
+        for (Future<Employee> future : futures) {
+            try {
+                future.get();
+                created++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(DuplicateEmailException.class);
+                conflicts++;
+            }
+        }
+        executor.shutdown();
+
+        //Then
+        assertThat(created).isEqualTo(1);
+        assertThat(conflicts).isEqualTo(THREADS - 1);
+        assertThat(employeeRepository.count()).isEqualTo(1);
+    }
+}
@@ -1,6 +1,10 @@
 package net.vinlabs.springboot.service;
 
-import net.vinlabs.springboot.exception.ResourceNotFoundException;
+import net.vinlabs.springboot.dto.EmployeeBulkResult;
+import net.vinlabs.springboot.dto.EmployeeFieldsPage;
+import net.vinlabs.springboot.dto.EmployeePage;
+import net.vinlabs.springboot.dto.EmployeePatch;
+import net.vinlabs.springboot.exception.DuplicateEmailException;
 import net.vinlabs.springboot.model.Employee;
 import net.vinlabs.springboot.repository.EmployeeRepository;
 import net.vinlabs.springboot.service.impl.EmployeeServiceImpl;
@@ -12,15 +16,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -30,6 +44,8 @@ public class EmployeeServiceTests {
     // Mocking the object
     @Mock
     private EmployeeRepository employeeRepository; // employeeRepository = Mockito.mock(EmployeeRepository.class);
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     // Injecting another mock to the mocked object.
     @InjectMocks
     private EmployeeServiceImpl employeeService;// employeeService = new EmployeeServiceImpl(employeeRepository);
@@ -51,28 +67,85 @@ public class EmployeeServiceTests {
     @Test
     public void givenEmployeeObject_whenSaveEmployee_thenReturnEmployeeObject() {
         //Given.
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.empty());
-        given(employeeRepository.save(employee))
+        given(employeeRepository.saveAndFlush(employee))
                 .willReturn(employee);
         //When
         Employee savedEmployee = employeeService.saveEmployee(employee);
 
         //Then
         assertThat(savedEmployee).isNotNull();
+        verify(employeeRepository, never()).findByEmail(any());
+        verify(eventPublisher).publishEvent(any(EmployeesChangedEvent.class));
 
     }
 
     @DisplayName("JUnite test for validating exception")
     @Test
-    public void givenEmployeeObjectWithExistingEmailId_whenSaveEmployee_thenThrowsNoResourceFoundException() {
+    public void givenEmployeeObjectWithExistingEmailId_whenSaveEmployee_thenThrowsDuplicateEmailException() {
         //Given.
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLIntegrityConstraintViolationException(
+                                "Duplicate entry 'vinod@gmail,com' for key 'employees." + Employee.EMAIL_INDEX + "'")));
+        //When
+        Assertions.assertThrows(DuplicateEmailException.class, () -> employeeService.saveEmployee(employee));
+        //Then
+        verify(employeeRepository, never()).findByEmail(any());
+    }
+
+    @DisplayName("JUnit test for save employee method when another constraint fails")
+    @Test
+    public void givenOtherConstraintViolation_whenSaveEmployee_thenRethrowIt() {
+        //Given.
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLIntegrityConstraintViolationException("Column 'first_name' cannot be null")));
+        //When
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> employeeService.saveEmployee(employee));
+    }
+
+    @DisplayName("JUnit test for saveEmployees method")
+    @Test
+    public void givenEmployeeList_whenSaveEmployees_thenReturnResultPerItem() {
+        //Given.
+        Employee newEmployee = Employee.builder()
+                .firstName("Nisha")
+                .lastName("Vinod")
+                .email("Nisha@gmail,com")
+                .build();
+        Employee existingEmail = Employee.builder()
+                .firstName("Vinod")
+                .lastName("Vinod")
+                .email(employee.getEmail())
+                .build();
+        Employee repeatedEmail = Employee.builder()
+                .firstName("Nisha")
+                .lastName("Raj")
+                .email(" nisha@GMAIL,com")
+                .build();
+        Employee invalid = Employee.builder()
+                .firstName("Raj")
+                .build();
+
+        given(employeeRepository.findExistingNormalizedEmails(anyCollection()))
+                .willReturn(Set.of(Employee.normalizeEmail(employee.getEmail())));
+        willAnswer((invocation) -> {
+            List<Employee> accepted = invocation.getArgument(0);
+            accepted.forEach(e -> e.setId(10L));
+            return null;
+        }).given(employeeRepository).batchInsert(List.of(newEmployee));
         //When
-        Assertions.assertThrows(ResourceNotFoundException.class, () -> employeeService.saveEmployee(employee));
+        List<EmployeeBulkResult> results = employeeService.saveEmployees(List.of(newEmployee, existingEmail, repeatedEmail, invalid));
+
         //Then
-        verify(employeeRepository, never()).save(any(Employee.class));
+        assertThat(results).extracting(EmployeeBulkResult::getStatus).containsExactly(
+                EmployeeBulkResult.Status.CREATED,
+                EmployeeBulkResult.Status.DUPLICATE_EMAIL,
+                EmployeeBulkResult.Status.DUPLICATE_EMAIL,
+                EmployeeBulkResult.Status.INVALID);
+        assertThat(results.get(0).getId()).isEqualTo(10L);
+        verify(employeeRepository, times(1)).findExistingNormalizedEmails(anyCollection());
+        verify(employeeRepository, never()).findByEmail(any());
     }
 
     @DisplayName("JUnite test for getallEmployees method")
@@ -132,6 +205,98 @@ public class EmployeeServiceTests {
         assertThat(allEmployees.size()).isEqualTo(2);
     }
 
+    @DisplayName("JUnit test for getEmployees method when more rows follow the page")
+    @Test
+    public void givenMoreRowsThanLimit_whenGetEmployees_thenReturnPageWithNextCursor() {
+        //Given.
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("Nisha")
+                .lastName("Vinod")
+                .email("Nisha@gmail,com")
+                .build();
+
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2)))
+                .willReturn(List.of(employee, employee1));
+        //When
+        EmployeePage page = employeeService.getEmployees(0L, 1);
+
+        //Then
+        assertThat(page.getEmployees()).containsExactly(employee);
+        assertThat(page.getNextCursor()).isEqualTo(employee.getId());
+    }
+
+    @DisplayName("JUnit test for getEmployees method on the last page")
+    @Test
+    public void givenFewerRowsThanLimit_whenGetEmployees_thenReturnLastPage() {
+        //Given.
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 3)))
+                .willReturn(List.of(employee));
+        //When
+        EmployeePage page = employeeService.getEmployees(0L, 2);
+
+        //Then
+        assertThat(page.getEmployees()).containsExactly(employee);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @DisplayName("JUnit test for getEmployeeFields method")
+    @Test
+    public void givenFieldsWithoutId_whenGetEmployeeFields_thenCursorFromIdButIdNotReturned() {
+        //Given.
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", id);
+            row.put("lastName", "Last" + id);
+            rows.add(row);
+        }
+        given(employeeRepository.findFieldsByIdGreaterThan(List.of("lastName"), 0L, 3))
+                .willReturn(rows);
+        //When
+        EmployeeFieldsPage page = employeeService.getEmployeeFields(List.of("lastName"), 0L, 2);
+
+        //Then
+        assertThat(page.getEmployees()).containsExactly(Map.of("lastName", "Last1"), Map.of("lastName", "Last2"));
+        assertThat(page.getNextCursor()).isEqualTo(2L);
+    }
+
+    @DisplayName("JUnit test for searchEmployees method")
+    @Test
+    public void givenNamesakes_whenSearchEmployees_thenReturnPagedMatches() {
+        //Given.
+        Employee namesake = Employee.builder()
+                .id(9L)
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email("namesake@gmail,com")
+                .build();
+        given(employeeRepository.findByFirstNameAndLastNameAndIdGreaterThanOrderByIdAsc(
+                employee.getFirstName(), employee.getLastName(), 0L, PageRequest.of(0, 3)))
+                .willReturn(List.of(employee, namesake));
+        //When
+        EmployeePage page = employeeService.searchEmployees(employee.getFirstName(), employee.getLastName(), 0L, 2);
+
+        //Then
+        assertThat(page.getEmployees()).containsExactly(employee, namesake);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @DisplayName("JUnit test for exportEmployees method")
+    @Test
+    public void givenConsumer_whenExportEmployees_thenScrollRepository() {
+        //Given.
+        Consumer<Employee> consumer = e -> { };
+        given(employeeRepository.scrollAll(consumer))
+                .willReturn(2L);
+        //When
+        long exported = employeeService.exportEmployees(consumer);
+
+        //Then
+        assertThat(exported).isEqualTo(2L);
+        verify(employeeRepository, never()).findAll();
+    }
+
     @DisplayName("Junit test for getEmployeeById method")
     @Test
     public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployee() {
@@ -151,7 +316,7 @@ public class EmployeeServiceTests {
     @Test
     public void givenEmployeeObject_whenUpdate_thenReturnUpdatedEmployee() {
         //Given
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
         employee.setFirstName("raj");
         //When
         Employee updatedEmployee = employeeService.updateEmployee(employee);
@@ -163,20 +328,63 @@ public class EmployeeServiceTests {
 
     }
 
-    // willDoNothing is the one to mock the void methods
+    @DisplayName("Junit test for patchEmployee method")
+    @Test
+    public void givenEmployeePatch_whenPatchEmployee_thenReturnTrueWhenRowUpdated() {
+        //Given
+        EmployeePatch patch = EmployeePatch.builder().firstName("raj").build();
+        given(employeeRepository.updateFields(employee.getId(), patch)).willReturn(1);
+        given(employeeRepository.updateFields(2L, patch)).willReturn(0);
+        //When
+        boolean patched = employeeService.patchEmployee(employee.getId(), patch);
+        boolean missing = employeeService.patchEmployee(2L, patch);
+
+        //Then
+        assertThat(patched).isTrue();
+        assertThat(missing).isFalse();
+        verify(employeeRepository, never()).findById(any());
+    }
+
     @DisplayName("Junit test for deleteEmployee method")
     @Test
     public void givenEmployeeId_whenDelete_thenRemoveTheEmployee() {
         //Given
-        willDoNothing().given(employeeRepository).deleteById(employee.getId());
+        given(employeeRepository.deleteByIdReturningCount(employee.getId())).willReturn(1);
         //When
-        employeeService.deleteEmployeeById(employee.getId());
+        boolean deleted = employeeService.deleteEmployeeById(employee.getId());
 
         //Then
         Optional<Employee> deletedEmployee = employeeService.getEmployeeById(employee.getId());
+        assertThat(deleted).isTrue();
         assertThat(deletedEmployee.isPresent()).isFalse();
-        verify(employeeRepository,times(1)).deleteById(employee.getId());
+        verify(employeeRepository,times(1)).deleteByIdReturningCount(employee.getId());
+        verify(employeeRepository, never()).deleteById(any());
+
+    }
+
+    @DisplayName("Junit test for deleteEmployee method with an unknown id")
+    @Test
+    public void givenUnknownEmployeeId_whenDelete_thenReturnFalse() {
+        //Given
+        given(employeeRepository.deleteByIdReturningCount(2L)).willReturn(0);
+        //When
+        boolean deleted = employeeService.deleteEmployeeById(2L);
+
+        //Then
+        assertThat(deleted).isFalse();
+        verify(eventPublisher, never()).publishEvent(any());
+    }
 
+    @DisplayName("Junit test for deleteEmployeesByIds method")
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployeesByIds_thenReturnDeletedCount() {
+        //Given
+        given(employeeRepository.deleteByIds(List.of(1L, 2L))).willReturn(1);
+        //When
+        int deleted = employeeService.deleteEmployeesByIds(List.of(1L, 2L));
+
+        //Then
+        assertThat(deleted).isEqualTo(1);
     }
 
 }
@@ -0,0 +1,91 @@
+package net.vinlabs.springboot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.vinlabs.springboot.dto.EmployeeSnapshot;
+import net.vinlabs.springboot.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeSnapshotCacheTests {
+    @Mock
+    private EmployeeService employeeService;
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+    private EmployeeSnapshotCache snapshotCache;
+
+    @BeforeEach
+    public void setup() {
+        snapshotCache = new EmployeeSnapshotCache(employeeService, objectMapper);
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(Employee.builder().id(1L).firstName("Vinod").lastName("Chattergee").email("vinod@gmail.com").build());
+            consumer.accept(Employee.builder().id(2L).firstName("Nisha").lastName("Vinod").email("nisha@gmail.com").build());
+            return 2L;
+        }).given(employeeService).exportEmployees(any());
+    }
+
+    @DisplayName("JUnit test for reads between writes sharing one encoded snapshot")
+    @Test
+    public void givenNoWrites_whenGetSnapshotTwice_thenEncodeOnce() throws Exception {
+        //When
+        EmployeeSnapshot first = snapshotCache.getSnapshot();
+        EmployeeSnapshot second = snapshotCache.getSnapshot();
+
+        //Then
+        assertThat(second).isSameAs(first);
+        Employee[] employees = objectMapper.readValue(first.getJson(), Employee[].class);
+        assertThat(employees).extracting(Employee::getEmail).containsExactly("vinod@gmail.com", "nisha@gmail.com");
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(first.getGzipJson()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(first.getJson());
+        }
+        verify(employeeService, times(1)).exportEmployees(any());
+    }
+
+    @DisplayName("JUnit test for a write bumping the version and forcing a rebuild")
+    @Test
+    public void givenWrite_whenGetSnapshot_thenRebuildAtNewVersion() {
+        //Given
+        EmployeeSnapshot before = snapshotCache.getSnapshot();
+
+        //When
+        snapshotCache.onEmployeesChanged(new EmployeesChangedEvent());
+        EmployeeSnapshot after = snapshotCache.getSnapshot();
+
+        //Then
+        assertThat(after.getVersion()).isEqualTo(before.getVersion() + 1);
+        assertThat(snapshotCache.getWriteVersion()).isEqualTo(after.getVersion());
+        verify(employeeService, times(2)).exportEmployees(any());
+    }
+
+    @DisplayName("JUnit test for the same rows giving the same digest after a restart, where the version starts over")
+    @Test
+    public void givenSameRows_whenGetSnapshotFromNewCache_thenSameDigest() {
+        //Given
+        EmployeeSnapshot before = snapshotCache.getSnapshot();
+        snapshotCache.onEmployeesChanged(new EmployeesChangedEvent());
+
+        //When
+        EmployeeSnapshot restarted = new EmployeeSnapshotCache(employeeService, objectMapper).getSnapshot();
+
+        //Then
+        assertThat(restarted.getVersion()).isEqualTo(before.getVersion());
+        assertThat(restarted.getDigest()).isEqualTo(before.getDigest())
+                .isEqualTo(DigestUtils.md5DigestAsHex(restarted.getJson()));
+    }
+}
@@ -0,0 +1,215 @@
+package net.vinlabs.springboot.service;
+
+import net.vinlabs.springboot.exception.DuplicateEmailException;
+import net.vinlabs.springboot.exception.IdempotencyKeyInProgressException;
+import net.vinlabs.springboot.exception.IdempotencyKeyMismatchException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IdempotencyStoreTests {
+
+    private final IdempotencyStore store = new IdempotencyStore(100, Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+    @DisplayName("A repeated key returns the first result without running the action again")
+    @Test
+    public void givenCompletedKey_whenExecuteAgain_thenResultReplayed() {
+        //Given
+        AtomicInteger runs = new AtomicInteger();
+        store.execute("key-1", "body", runs::incrementAndGet);
+
+        //When
+        int result = store.execute("key-1", "body", runs::incrementAndGet);
+
+        //Then
+        assertThat(result).isEqualTo(1);
+        assertThat(runs).hasValue(1);
+    }
+
+    @DisplayName("Reusing a key for a different request is rejected")
+    @Test
+    public void givenCompletedKey_whenExecuteWithOtherFingerprint_thenMismatch() {
+        //Given
+        store.execute("key-1", "body", () -> 1);
+
+        //When //Then
+        assertThatThrownBy(() -> store.execute("key-1", "other body", () -> 2))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+    }
+
+    @DisplayName("Client errors are replayed, other failures let the retry run again")
+    @Test
+    public void givenFailedKey_whenExecuteAgain_thenOnlyClientErrorsReplayed() {
+        //Given
+        AtomicInteger runs = new AtomicInteger();
+        assertThatThrownBy(() -> store.execute("conflict", "body", () -> {
+            runs.incrementAndGet();
+            throw new DuplicateEmailException("vinod@gmail.com");
+        })).isInstanceOf(DuplicateEmailException.class);
+        assertThatThrownBy(() -> store.execute("failure", "body", () -> {
+            throw new IllegalStateException("database is down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        //When //Then
+        assertThatThrownBy(() -> store.execute("conflict", "body", runs::incrementAndGet))
+                .isInstanceOf(DuplicateEmailException.class);
+        assertThat(runs).hasValue(1);
+        assertThat(store.execute("failure", "body", () -> 2)).isEqualTo(2);
+    }
+
+    @DisplayName("A key stays bound to a pending future and a retry gets its eventual result without running again")
+    @Test
+    public void givenPendingAsyncKey_whenExecuteAsyncAgain_thenEventualResultReplayed() throws Exception {
+        //Given
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<Integer> pending = new CompletableFuture<>();
+        CompletableFuture<Integer> first = store.executeAsync("key-1", "body", () -> {
+            runs.incrementAndGet();
+            return pending;
+        });
+
+        //When
+        CompletableFuture<Integer> retry = store.executeAsync("key-1", "body", () -> {
+            runs.incrementAndGet();
+            return CompletableFuture.completedFuture(2);
+        });
+        pending.complete(1);
+
+        //Then
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(retry.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(store.execute("key-1", "body", runs::incrementAndGet)).isEqualTo(1);
+        assertThat(runs).hasValue(1);
+    }
+
+    @DisplayName("A pending future that fails with a server error releases the key for the retry")
+    @Test
+    public void givenAsyncServerError_whenExecuteAsyncAgain_thenActionRunsAgain() throws Exception {
+        //Given
+        CompletableFuture<Integer> pending = new CompletableFuture<>();
+        store.executeAsync("key-1", "body", () -> pending);
+        pending.completeExceptionally(new IllegalStateException("database is down"));
+
+        //When
+        CompletableFuture<Integer> retry = store.executeAsync("key-1", "body", () -> CompletableFuture.completedFuture(2));
+
+        //Then
+        assertThat(retry.get(5, TimeUnit.SECONDS)).isEqualTo(2);
+    }
+
+    @DisplayName("Concurrent requests with the same key wait for the first one and share its result")
+    @Test
+    public void givenInFlightKey_whenExecuteConcurrently_thenActionRunsOnce() throws Exception {
+        //Given
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        //When
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> store.execute("key-1", "body", () -> {
+            started.countDown();
+            await(release);
+            return runs.incrementAndGet();
+        }), executor);
+        started.await(5, TimeUnit.SECONDS);
+        List<CompletableFuture<Integer>> retries = List.of(
+                CompletableFuture.supplyAsync(() -> store.execute("key-1", "body", runs::incrementAndGet), executor),
+                CompletableFuture.supplyAsync(() -> store.execute("key-1", "body", runs::incrementAndGet), executor));
+        release.countDown();
+
+        //Then
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        for (CompletableFuture<Integer> retry : retries) {
+            assertThat(retry.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        }
+        assertThat(runs).hasValue(1);
+        executor.shutdownNow();
+    }
+
+    @DisplayName("A request that waits longer than the timeout gets an in-progress conflict")
+    @Test
+    public void givenSlowInFlightKey_whenWaitTimesOut_thenInProgress() throws Exception {
+        //Given
+        IdempotencyStore impatientStore = new IdempotencyStore(100, Duration.ofMinutes(1), Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> impatientStore.execute("key-1", "body", () -> {
+            started.countDown();
+            await(release);
+            return 1;
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        //When //Then
+        assertThatThrownBy(() -> impatientStore.execute("key-1", "body", () -> 2))
+                .isInstanceOf(IdempotencyKeyInProgressException.class);
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    }
+
+    @DisplayName("An Error thrown by the action releases the key, the retry runs again")
+    @Test
+    public void givenActionThrowingError_whenExecuteAgain_thenActionRunsAgain() {
+        //Given
+        assertThatThrownBy(() -> store.execute("key-1", "body", () -> {
+            throw new NoClassDefFoundError("org/h2/Driver");
+        })).isInstanceOf(NoClassDefFoundError.class);
+
+        //When //Then
+        assertThat(store.execute("key-1", "body", () -> 2)).isEqualTo(2);
+    }
+
+    @DisplayName("Size eviction drops finished outcomes but never a key that is still in progress")
+    @Test
+    public void givenFullStore_whenKeyInProgress_thenNotEvicted() throws Exception {
+        //Given
+        IdempotencyStore smallStore = new IdempotencyStore(1, Duration.ofMinutes(1), Duration.ofSeconds(5));
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> smallStore.execute("in-progress", "body", () -> {
+            started.countDown();
+            await(release);
+            return runs.incrementAndGet();
+        }), executor);
+        started.await(5, TimeUnit.SECONDS);
+
+        //When
+        for (int i = 0; i < 10; i++) {
+            smallStore.execute("done-" + i, "body", () -> 0);
+        }
+        CompletableFuture<Integer> retry = CompletableFuture.supplyAsync(
+                () -> smallStore.execute("in-progress", "body", runs::incrementAndGet), executor);
+        release.countDown();
+
+        //Then
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(retry.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(runs).hasValue(1);
+        AtomicInteger reruns = new AtomicInteger();
+        smallStore.execute("done-0", "body", reruns::incrementAndGet);
+        assertThat(reruns).hasValue(1);
+        executor.shutdownNow();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}